@@ -2,7 +2,9 @@ package com.example.config;
 
 import com.example.filter.JwtAuthenticationFilter;
 import com.example.service.impl.UserServiceImpl;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,17 +15,22 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.RegexRequestMatcher;
 
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+
     private final UserServiceImpl userService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -38,13 +45,15 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authorize -> authorize
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers(HttpMethod.PUT, "/users/{id}").authenticated()
                         .requestMatchers(HttpMethod.PATCH, "/users/{id}").authenticated()
                         .requestMatchers("/users/**").hasRole("ADMIN")
 
-                        .requestMatchers(new RegexRequestMatcher("/(categories|prices|stores|products)/export", "GET"),
-                                new RegexRequestMatcher("/(categories|prices|stores|products)/import", "POST"))
+                        // Регулярное выражение проверяется вместе со строкой запроса, поэтому она допускается явно
+                        .requestMatchers(new RegexRequestMatcher("/(categories|prices|prices/history|stores|products)/export(/delta)?(\\?.*)?", "GET"),
+                                new RegexRequestMatcher("/(categories|prices|stores|products)/import(\\?.*)?", "POST"))
                         .hasRole("ADMIN")
 
                         .requestMatchers(HttpMethod.POST, "/prices/history/**").hasAnyRole("USER", "ADMIN")
@@ -63,8 +72,17 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Новые хэши сохраняются с префиксом {bcrypt} и заданной стоимостью. Хэши со стоимостью ниже текущей
+     * и хэши без префикса, сохраненные до перехода на DelegatingPasswordEncoder, пересчитываются при входе
+     * через UserDetailsPasswordService
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:10}") int strength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder passwordEncoder =
+                new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 }
\ No newline at end of file
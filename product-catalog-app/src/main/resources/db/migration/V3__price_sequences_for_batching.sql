@@ -0,0 +1,11 @@
+-- Цены и история цен получают id из последовательностей блоками по 50 (pooled-оптимизатор Hibernate),
+-- что позволяет отправлять INSERT пакетами вместо построчных IDENTITY-вставок.
+-- Шаг последовательности должен совпадать с allocationSize в сущностях Price и PriceHistory.
+-- Вставки в обход Hibernate (upsert цены, пакетная запись истории, ручные INSERT) берут DEFAULT nextval
+-- и расходуют по 50 значений на строку, поэтому столбцы и последовательности переводятся в BIGINT:
+-- диапазона INT хватило бы примерно на 43 млн таких вставок.
+ALTER TABLE prices ALTER COLUMN price_id TYPE BIGINT;
+ALTER TABLE price_history ALTER COLUMN price_history_id TYPE BIGINT;
+
+ALTER SEQUENCE prices_price_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE price_history_price_history_id_seq AS BIGINT INCREMENT BY 50;
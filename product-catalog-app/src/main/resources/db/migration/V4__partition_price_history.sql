@@ -0,0 +1,57 @@
+-- Перевод price_history на помесячное секционирование по recorded_at.
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования,
+-- поэтому он становится составным (price_history_id, recorded_at).
+-- Последующие секции создает PriceHistoryPartitionManager; секция по умолчанию
+-- принимает строки, для которых помесячная секция еще не создана.
+-- Ключ сразу объявлен BIGINT: последовательность с шагом 50 (V3) расходует блок на каждую вставку
+-- в обход Hibernate, а смена типа позже потребовала бы перезаписи всех секций.
+ALTER TABLE price_history RENAME TO price_history_legacy;
+ALTER TABLE price_history_legacy RENAME CONSTRAINT price_history_pkey TO price_history_legacy_pkey;
+ALTER SEQUENCE price_history_price_history_id_seq OWNED BY NONE;
+
+CREATE TABLE price_history
+(
+    price_history_id BIGINT    NOT NULL DEFAULT nextval('price_history_price_history_id_seq'),
+    product_id       BIGINT    NOT NULL REFERENCES products (product_id) ON DELETE CASCADE,
+    store_id         BIGINT    NOT NULL REFERENCES stores (store_id) ON DELETE CASCADE,
+    price            INT       NOT NULL,
+    recorded_at      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (price_history_id, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+ALTER SEQUENCE price_history_price_history_id_seq OWNED BY price_history.price_history_id;
+
+-- Индекс на секционированной таблице автоматически создается на каждой секции
+CREATE INDEX idx_price_history_product_store_recorded_at
+    ON price_history (product_id, store_id, recorded_at);
+
+DO
+$$
+    DECLARE
+        month_start DATE;
+        last_month  DATE;
+    BEGIN
+        SELECT COALESCE(date_trunc('month', MIN(recorded_at))::DATE, date_trunc('month', CURRENT_DATE)::DATE)
+        INTO month_start
+        FROM price_history_legacy;
+
+        last_month := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::DATE;
+
+        WHILE month_start <= last_month
+            LOOP
+                EXECUTE format('CREATE TABLE %I PARTITION OF price_history FOR VALUES FROM (%L) TO (%L)',
+                               'price_history_' || to_char(month_start, 'YYYY_MM'),
+                               month_start,
+                               (month_start + INTERVAL '1 month')::DATE);
+                month_start := (month_start + INTERVAL '1 month')::DATE;
+            END LOOP;
+    END
+$$;
+
+CREATE TABLE price_history_default PARTITION OF price_history DEFAULT;
+
+INSERT INTO price_history (price_history_id, product_id, store_id, price, recorded_at)
+SELECT price_history_id, product_id, store_id, price, recorded_at
+FROM price_history_legacy;
+
+DROP TABLE price_history_legacy;
@@ -0,0 +1,22 @@
+-- Индексы под запросы репозиториев.
+-- prices (product_id, store_id) уже покрыт уникальным ограничением, которое обслуживает
+-- findByProduct_ProductId и findByProductIdsAndStoreIds.
+
+-- ProductRepository.findByCategory_CategoryId
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category_id);
+
+-- CategoryRepository.findAllByParentId и подгрузка подкатегорий
+CREATE INDEX IF NOT EXISTS idx_categories_parent_id ON categories (parent_id);
+
+-- Каскадное удаление магазина и выборки цен по магазину
+CREATE INDEX IF NOT EXISTS idx_prices_store_id ON prices (store_id);
+CREATE INDEX IF NOT EXISTS idx_price_history_store_id ON price_history (store_id);
+
+-- Журнал операций пользователя и ON DELETE SET NULL при удалении пользователя
+CREATE INDEX IF NOT EXISTS idx_data_log_user_id ON data_log (user_id);
+
+-- PriceHistoryRepository.findByProductIdAndStoreIdAndDateRange: покрывающий индекс,
+-- чтобы агрегаты по цене читались только из индекса
+DROP INDEX IF EXISTS idx_price_history_product_store_recorded_at;
+CREATE INDEX idx_price_history_product_store_recorded_at
+    ON price_history (product_id, store_id, recorded_at) INCLUDE (price);
@@ -0,0 +1,86 @@
+-- Дневные агрегаты истории цен по паре товар-магазин.
+-- Таблица поддерживается триггером уровня оператора: каждая вставка в price_history
+-- (JPA, пакетная запись PriceHistoryWriter, upsert цены) добавляет свои строки в агрегаты
+-- одним INSERT ... ON CONFLICT в той же транзакции.
+-- Удаление секций price_history по сроку хранения агрегаты не затрагивает.
+CREATE TABLE price_history_daily
+(
+    product_id        BIGINT    NOT NULL REFERENCES products (product_id) ON DELETE CASCADE,
+    store_id          BIGINT    NOT NULL REFERENCES stores (store_id) ON DELETE CASCADE,
+    day               DATE      NOT NULL,
+    min_price         INT       NOT NULL,
+    max_price         INT       NOT NULL,
+    first_price       INT       NOT NULL,
+    first_recorded_at TIMESTAMP NOT NULL,
+    last_price        INT       NOT NULL,
+    last_recorded_at  TIMESTAMP NOT NULL,
+    price_sum         BIGINT    NOT NULL,
+    price_count       BIGINT    NOT NULL,
+    PRIMARY KEY (product_id, store_id, day)
+);
+
+CREATE INDEX idx_price_history_daily_store_id ON price_history_daily (store_id);
+
+CREATE FUNCTION price_history_daily_apply() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    INSERT INTO price_history_daily AS d (product_id, store_id, day, min_price, max_price,
+                                          first_price, first_recorded_at, last_price, last_recorded_at,
+                                          price_sum, price_count)
+    SELECT product_id,
+           store_id,
+           CAST(recorded_at AS DATE),
+           MIN(price),
+           MAX(price),
+           (array_agg(price ORDER BY recorded_at))[1],
+           MIN(recorded_at),
+           (array_agg(price ORDER BY recorded_at DESC))[1],
+           MAX(recorded_at),
+           SUM(price),
+           COUNT(*)
+    FROM new_rows
+    GROUP BY 1, 2, 3
+    ORDER BY 1, 2, 3
+    ON CONFLICT (product_id, store_id, day) DO UPDATE
+        SET min_price         = LEAST(d.min_price, EXCLUDED.min_price),
+            max_price         = GREATEST(d.max_price, EXCLUDED.max_price),
+            first_price       = CASE
+                                    WHEN EXCLUDED.first_recorded_at < d.first_recorded_at THEN EXCLUDED.first_price
+                                    ELSE d.first_price END,
+            first_recorded_at = LEAST(d.first_recorded_at, EXCLUDED.first_recorded_at),
+            last_price        = CASE
+                                    WHEN EXCLUDED.last_recorded_at >= d.last_recorded_at THEN EXCLUDED.last_price
+                                    ELSE d.last_price END,
+            last_recorded_at  = GREATEST(d.last_recorded_at, EXCLUDED.last_recorded_at),
+            price_sum         = d.price_sum + EXCLUDED.price_sum,
+            price_count       = d.price_count + EXCLUDED.price_count;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER price_history_daily_after_insert
+    AFTER INSERT
+    ON price_history
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+EXECUTE FUNCTION price_history_daily_apply();
+
+-- Заполнение по уже накопленной истории
+INSERT INTO price_history_daily (product_id, store_id, day, min_price, max_price,
+                                 first_price, first_recorded_at, last_price, last_recorded_at,
+                                 price_sum, price_count)
+SELECT product_id,
+       store_id,
+       CAST(recorded_at AS DATE),
+       MIN(price),
+       MAX(price),
+       (array_agg(price ORDER BY recorded_at))[1],
+       MIN(recorded_at),
+       (array_agg(price ORDER BY recorded_at DESC))[1],
+       MAX(recorded_at),
+       SUM(price),
+       COUNT(*)
+FROM price_history
+GROUP BY 1, 2, 3;
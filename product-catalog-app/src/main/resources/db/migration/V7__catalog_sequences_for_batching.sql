@@ -0,0 +1,15 @@
+-- Категории, магазины и продукты получают id из последовательностей блоками по 50, как цены в V3,
+-- чтобы потоковый импорт отправлял INSERT пакетами вместо построчных IDENTITY-вставок.
+-- Шаг последовательности должен совпадать с allocationSize в сущностях Category, Store и Product.
+-- Вставка в обход Hibernate расходует по 50 значений, поэтому ключи и ссылки на них переводятся в BIGINT.
+ALTER TABLE categories ALTER COLUMN category_id TYPE BIGINT;
+ALTER TABLE categories ALTER COLUMN parent_id TYPE BIGINT;
+ALTER TABLE stores ALTER COLUMN store_id TYPE BIGINT;
+ALTER TABLE products ALTER COLUMN product_id TYPE BIGINT;
+ALTER TABLE products ALTER COLUMN category_id TYPE BIGINT;
+ALTER TABLE prices ALTER COLUMN product_id TYPE BIGINT;
+ALTER TABLE prices ALTER COLUMN store_id TYPE BIGINT;
+
+ALTER SEQUENCE categories_category_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE stores_store_id_seq AS BIGINT INCREMENT BY 50;
+ALTER SEQUENCE products_product_id_seq AS BIGINT INCREMENT BY 50;
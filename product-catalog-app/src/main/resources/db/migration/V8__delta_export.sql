@@ -0,0 +1,101 @@
+-- Инкрементальная выгрузка: время изменения строки и журнал удалений.
+-- updated_at выставляется триггером по часам БД при любой вставке и изменении (JPA, upsert цены, пакетный импорт),
+-- чтобы граница выгрузки, которую приложение читает из БД, и время изменения строк брались из одного источника.
+-- У prices recorded_at не меняется при обновлении цены, поэтому для выгрузки добавлен отдельный столбец.
+ALTER TABLE prices ADD COLUMN updated_at TIMESTAMP;
+
+UPDATE categories SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE stores SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE products SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE prices SET updated_at = recorded_at;
+
+ALTER TABLE categories ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE stores ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE products ALTER COLUMN updated_at SET NOT NULL;
+ALTER TABLE prices ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE prices ALTER COLUMN updated_at SET NOT NULL;
+
+CREATE FUNCTION touch_updated_at() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    NEW.updated_at := CURRENT_TIMESTAMP;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER categories_touch_updated_at
+    BEFORE INSERT OR UPDATE ON categories
+    FOR EACH ROW
+EXECUTE FUNCTION touch_updated_at();
+
+CREATE TRIGGER stores_touch_updated_at
+    BEFORE INSERT OR UPDATE ON stores
+    FOR EACH ROW
+EXECUTE FUNCTION touch_updated_at();
+
+CREATE TRIGGER products_touch_updated_at
+    BEFORE INSERT OR UPDATE ON products
+    FOR EACH ROW
+EXECUTE FUNCTION touch_updated_at();
+
+CREATE TRIGGER prices_touch_updated_at
+    BEFORE INSERT OR UPDATE ON prices
+    FOR EACH ROW
+EXECUTE FUNCTION touch_updated_at();
+
+-- DeltaExportServiceImpl: выборка строк, измененных в окне выгрузки
+CREATE INDEX idx_categories_updated_at ON categories (updated_at);
+CREATE INDEX idx_stores_updated_at ON stores (updated_at);
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+CREATE INDEX idx_prices_updated_at ON prices (updated_at);
+
+-- Журнал удалений для инкрементальной выгрузки. Заполняется триггерами уровня оператора,
+-- поэтому учитываются и каскадные удаления (продукт -> цены, магазин -> цены).
+-- Записи старше срока хранения удаляются по расписанию.
+CREATE TABLE deleted_rows
+(
+    deleted_row_id BIGSERIAL PRIMARY KEY,
+    table_name     VARCHAR(50) NOT NULL,
+    row_id         BIGINT      NOT NULL,
+    deleted_at     TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_deleted_rows_table_deleted_at ON deleted_rows (table_name, deleted_at);
+
+CREATE FUNCTION record_deleted_rows() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    -- TG_ARGV[0] - имя столбца первичного ключа
+    EXECUTE format('INSERT INTO deleted_rows (table_name, row_id) SELECT %L, %I FROM deleted_set',
+                   TG_TABLE_NAME, TG_ARGV[0]);
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER categories_record_deleted
+    AFTER DELETE ON categories
+    REFERENCING OLD TABLE AS deleted_set
+    FOR EACH STATEMENT
+EXECUTE FUNCTION record_deleted_rows('category_id');
+
+CREATE TRIGGER stores_record_deleted
+    AFTER DELETE ON stores
+    REFERENCING OLD TABLE AS deleted_set
+    FOR EACH STATEMENT
+EXECUTE FUNCTION record_deleted_rows('store_id');
+
+CREATE TRIGGER products_record_deleted
+    AFTER DELETE ON products
+    REFERENCING OLD TABLE AS deleted_set
+    FOR EACH STATEMENT
+EXECUTE FUNCTION record_deleted_rows('product_id');
+
+CREATE TRIGGER prices_record_deleted
+    AFTER DELETE ON prices
+    REFERENCING OLD TABLE AS deleted_set
+    FOR EACH STATEMENT
+EXECUTE FUNCTION record_deleted_rows('price_id');
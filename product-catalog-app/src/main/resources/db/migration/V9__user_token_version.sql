@@ -0,0 +1,4 @@
+-- Версия токенов пользователя для аутентификации без чтения пользователя из БД на каждый запрос.
+-- Версия записывается в JWT при выдаче и увеличивается при смене роли или пароля:
+-- токены со старой версией перестают приниматься. Удаление пользователя отзывает токены так же.
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,408 @@
+package com.example.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет планы запросов репозиториев на реальной PostgreSQL со схемой из миграций Flyway.
+ * Каждый метод репозитория вызывается через Spring Data, SQL и параметры, которые Hibernate
+ * отправил в драйвер, перехватываются и передаются в EXPLAIN с теми же параметрами.
+ * Последовательное сканирование таблицы больше {@link #SEQ_SCAN_ROW_THRESHOLD} строк считается регрессией.
+ * Для выгрузок и findAll* без условий полное сканирование ожидаемо, их планы только строятся
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class RepositoryQueryPlanTest {
+
+    private static final long SEQ_SCAN_ROW_THRESHOLD = 1000;
+
+    private static final String SEED_SQL = """
+            INSERT INTO categories (category_id, category_name, parent_id)
+            SELECT 100000 + i, 'plan-category-' || i, CASE WHEN i > 50 THEN 100000 + (i % 50) + 1 END
+            FROM generate_series(1, 2000) i;
+
+            INSERT INTO products (product_id, product_name, category_id)
+            SELECT 100000 + i, 'plan-product-' || i, 100000 + (i % 2000) + 1
+            FROM generate_series(1, 20000) i;
+
+            INSERT INTO stores (store_id, store_name)
+            SELECT 100000 + i, 'plan-store-' || i
+            FROM generate_series(1, 200) i;
+
+            INSERT INTO prices (price_id, product_id, store_id, price)
+            SELECT 1000000 + i, 100000 + (i - 1) / 5 + 1, 100000 + ((i - 1) % 5) * 40 + ((i - 1) / 5) % 40 + 1, i
+            FROM generate_series(1, 50000) i;
+
+            INSERT INTO price_history (price_history_id, product_id, store_id, price, recorded_at)
+            SELECT 1000000 + i, 100000 + (i % 10000) + 1, 100000 + (i % 200) + 1, i,
+                   date_trunc('month', CURRENT_TIMESTAMP) + (i % 20000) * INTERVAL '1 minute'
+            FROM generate_series(1, 200000) i;
+
+            ANALYZE;
+            """;
+
+    // Окно инкрементальной выгрузки в прошлом: строки засева изменены сейчас и в окно не попадают
+    private static final LocalDateTime DELTA_FROM = LocalDateTime.now().minusDays(2);
+    private static final LocalDateTime DELTA_TO = LocalDateTime.now().minusDays(1);
+    private static final LocalDateTime MONTH_START = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+
+    private static final List<CapturedStatement> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static boolean seeded;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Autowired
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private DeletedRowRepository deletedRowRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.driver-class-name", POSTGRES::getDriverClassName);
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @BeforeEach
+    void seed() throws SQLException {
+        if (seeded) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(SEED_SQL);
+        }
+        seeded = true;
+    }
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                // CategoryRepository
+                Arguments.of("CategoryRepository.findAllWithSubCategories", true,
+                        call(test -> test.categoryRepository.findAllWithSubCategories())),
+                Arguments.of("CategoryRepository.streamAllAsDto", true,
+                        call(test -> consume(test.categoryRepository.streamAllAsDto()))),
+                Arguments.of("CategoryRepository.streamChangedAsDto", false,
+                        call(test -> consume(test.categoryRepository.streamChangedAsDto(DELTA_FROM, DELTA_TO)))),
+                Arguments.of("CategoryRepository.findAllByParentId", false,
+                        call(test -> test.categoryRepository.findAllByParentId(100003L))),
+
+                // ProductRepository
+                Arguments.of("ProductRepository.findByCategory_CategoryId", false,
+                        call(test -> test.productRepository.findByCategory_CategoryId(100011L))),
+                Arguments.of("ProductRepository.findAllWithCategory", true,
+                        call(test -> test.productRepository.findAllWithCategory())),
+                Arguments.of("ProductRepository.streamAllAsDto", true,
+                        call(test -> consume(test.productRepository.streamAllAsDto()))),
+                Arguments.of("ProductRepository.streamChangedAsDto", false,
+                        call(test -> consume(test.productRepository.streamChangedAsDto(DELTA_FROM, DELTA_TO)))),
+
+                // StoreRepository
+                Arguments.of("StoreRepository.streamAllAsDto", true,
+                        call(test -> consume(test.storeRepository.streamAllAsDto()))),
+                Arguments.of("StoreRepository.streamChangedAsDto", false,
+                        call(test -> consume(test.storeRepository.streamChangedAsDto(DELTA_FROM, DELTA_TO)))),
+
+                // PriceRepository
+                Arguments.of("PriceRepository.findAllAsDto", true,
+                        call(test -> test.priceRepository.findAllAsDto())),
+                Arguments.of("PriceRepository.streamAllAsDto", true,
+                        call(test -> consume(test.priceRepository.streamAllAsDto()))),
+                Arguments.of("PriceRepository.streamChangedAsDto", false,
+                        call(test -> consume(test.priceRepository.streamChangedAsDto(DELTA_FROM, DELTA_TO)))),
+                Arguments.of("PriceRepository.findDtosByProductId", false,
+                        call(test -> test.priceRepository.findDtosByProductId(100042L))),
+                Arguments.of("PriceRepository.findByProductIdsAndStoreIds", false,
+                        call(test -> test.priceRepository.findByProductIdsAndStoreIds(
+                                List.of(100001L, 100002L, 100003L), List.of(100001L, 100041L, 100081L)))),
+                Arguments.of("PriceRepository.upsertPrice", false,
+                        call(test -> test.priceRepository.upsertPrice(100042L, 100002L, 999))),
+
+                // PriceHistoryRepository
+                Arguments.of("PriceHistoryRepository.findByProductIdAndStoreIdAndDateRange", false,
+                        call(test -> test.priceHistoryRepository.findByProductIdAndStoreIdAndDateRange(
+                                100042L, 100042L, MONTH_START, MONTH_START.plusDays(7)))),
+                Arguments.of("PriceHistoryRepository.findByProductIdAndStoreIdsAndDateRange", false,
+                        call(test -> test.priceHistoryRepository.findByProductIdAndStoreIdsAndDateRange(
+                                100042L, List.of(100042L, 100043L), MONTH_START, MONTH_START.plusDays(7)))),
+                Arguments.of("PriceHistoryRepository.streamByProductIdAndStoreIdAndDateRange", false,
+                        call(test -> consume(test.priceHistoryRepository.streamByProductIdAndStoreIdAndDateRange(
+                                100042L, 100042L, MONTH_START, MONTH_START.plusDays(7))))),
+                Arguments.of("PriceHistoryRepository.findBucketsByProductIdAndStoreIdAndDateRange", false,
+                        call(test -> test.priceHistoryRepository.findBucketsByProductIdAndStoreIdAndDateRange(
+                                100042L, 100042L, "day", MONTH_START, MONTH_START.plusDays(7)))),
+                Arguments.of("PriceHistoryRepository.findDailyRollupBucketsByProductIdAndStoreIdAndDateRange", false,
+                        call(test -> test.priceHistoryRepository.findDailyRollupBucketsByProductIdAndStoreIdAndDateRange(
+                                100042L, 100042L, "week", MONTH_START.toLocalDate(),
+                                MONTH_START.toLocalDate().plusMonths(1)))),
+                Arguments.of("PriceHistoryRepository.streamAllAsDto", true,
+                        call(test -> consume(test.priceHistoryRepository.streamAllAsDto()))),
+
+                // DeletedRowRepository
+                Arguments.of("DeletedRowRepository.streamDeletedIds", false,
+                        call(test -> consume(test.deletedRowRepository.streamDeletedIds(
+                                "products", DELTA_FROM, DELTA_TO)))),
+                Arguments.of("DeletedRowRepository.deleteByDeletedAtBefore", false,
+                        call(test -> test.deletedRowRepository.deleteByDeletedAtBefore(DELTA_FROM))),
+                Arguments.of("DeletedRowRepository.currentTimestamp", false,
+                        call(test -> test.deletedRowRepository.currentTimestamp()))
+        );
+    }
+
+    @Test
+    void testRepositoryQueries_CoverEveryQueryMethod() {
+        // GIVEN
+        Set<String> declared = Stream.of(CategoryRepository.class, ProductRepository.class, StoreRepository.class,
+                        PriceRepository.class, PriceHistoryRepository.class, DeletedRowRepository.class)
+                .flatMap(repository -> Arrays.stream(repository.getDeclaredMethods())
+                        .filter(method -> !method.isSynthetic())
+                        .map(method -> repository.getSimpleName() + "." + method.getName()))
+                .collect(Collectors.toSet());
+
+        // WHEN
+        Set<String> covered = repositoryQueries()
+                .map(arguments -> (String) arguments.get()[0])
+                .collect(Collectors.toSet());
+
+        // THEN
+        assertEquals(declared, covered);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void testQueryPlan_NoSeqScanOnLargeTables(String name, boolean fullScanExpected, RepositoryCall repositoryCall)
+            throws Exception {
+        // GIVEN
+        List<CapturedStatement> statements = capture(repositoryCall);
+        List<String> largeSeqScans = new ArrayList<>();
+
+        // WHEN
+        try (Connection connection = dataSource.getConnection()) {
+            for (CapturedStatement statement : statements) {
+                JsonNode plan = explain(connection, statement);
+                collectLargeSeqScans(connection, plan, statement.sql(), largeSeqScans);
+            }
+        }
+
+        // THEN
+        assertFalse(statements.isEmpty(), () -> name + ": запрос не дошел до БД");
+        if (!fullScanExpected) {
+            assertTrue(largeSeqScans.isEmpty(), () -> name + ": последовательное сканирование " + largeSeqScans);
+        }
+    }
+
+    /**
+     * Вызывает метод репозитория в транзакции, которая затем откатывается, и возвращает выполненные запросы
+     */
+    private List<CapturedStatement> capture(RepositoryCall repositoryCall) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        STATEMENTS.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            repositoryCall.invoke(this);
+            status.setRollbackOnly();
+        });
+        return List.copyOf(STATEMENTS);
+    }
+
+    private JsonNode explain(Connection connection, CapturedStatement captured) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + captured.sql())) {
+            for (Map.Entry<Integer, Object> parameter : captured.parameters().entrySet()) {
+                if (parameter.getValue() instanceof NullParameter nullParameter) {
+                    statement.setNull(parameter.getKey(), nullParameter.sqlType());
+                } else {
+                    statement.setObject(parameter.getKey(), parameter.getValue());
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private void collectLargeSeqScans(Connection connection, JsonNode node, String sql, List<String> result)
+            throws SQLException {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            String relation = node.path("Relation Name").asText();
+            if (estimatedRows(connection, relation) > SEQ_SCAN_ROW_THRESHOLD) {
+                result.add(relation + " в запросе " + sql);
+            }
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectLargeSeqScans(connection, child, sql, result);
+        }
+    }
+
+    private static long estimatedRows(Connection connection, String relation) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT reltuples::BIGINT FROM pg_class WHERE relname = ?")) {
+            statement.setString(1, relation);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    private static RepositoryCall call(RepositoryCall repositoryCall) {
+        return repositoryCall;
+    }
+
+    private static void consume(Stream<?> stream) {
+        try (stream) {
+            stream.findFirst();
+        }
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void invoke(RepositoryQueryPlanTest test);
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    private record NullParameter(int sqlType) {
+    }
+
+    /**
+     * Оборачивает DataSource приложения: запоминает SQL подготовленных запросов и привязанные параметры
+     * в момент выполнения
+     */
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, dataSource, (method, args, result) ->
+                            result instanceof Connection connection ? capturingConnection(connection) : result);
+                }
+            };
+        }
+
+        private static Connection capturingConnection(Connection connection) {
+            return proxy(Connection.class, connection, (method, args, result) -> {
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                    return capturingStatement(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement capturingStatement(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            InvocationHandler handler = (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.equals("setNull") && args.length >= 2) {
+                    parameters.put((Integer) args[0], new NullParameter((Integer) args[1]));
+                } else if (name.startsWith("set") && args != null && args.length >= 2
+                        && method.getParameterTypes()[0] == int.class) {
+                    parameters.put((Integer) args[0], args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if ((name.equals("execute") || name.equals("executeQuery") || name.equals("executeUpdate"))
+                        && (args == null || args.length == 0)) {
+                    STATEMENTS.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                }
+                return invoke(statement, method, args);
+            };
+            return (PreparedStatement) Proxy.newProxyInstance(RepositoryQueryPlanTest.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, handler);
+        }
+
+        private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+            InvocationHandler handler = (proxy, method, args) ->
+                    wrapper.wrap(method, args, invoke(target, method, args));
+            return type.cast(Proxy.newProxyInstance(RepositoryQueryPlanTest.class.getClassLoader(),
+                    new Class<?>[]{type}, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @FunctionalInterface
+        private interface ResultWrapper {
+            Object wrap(Method method, Object[] args, Object result);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Окно инкрементальной выгрузки: строки, измененные или удаленные в интервале (from, to]
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaWindowDTO {
+
+    /**
+     * Начало окна, не включается. null - первая выгрузка: все строки без журнала удалений
+     */
+    private LocalDateTime from;
+    private LocalDateTime to;
+    /**
+     * Курсор для следующей выгрузки, указывает на конец окна
+     */
+    private String cursor;
+}
@@ -0,0 +1,31 @@
+package com.example.dto;
+
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportJobStatus;
+import com.example.enums.ExportTable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportJobDTO {
+
+    private String jobId;
+    private ExportTable table;
+    private ExportFormat format;
+    private CompressionType compression;
+    private ExportJobStatus status;
+    private String fileName;
+    private Long rowCount;
+    private Long bytesWritten;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.dto;
+
+import com.example.enums.ExportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExportResultDTO {
+
+    private String tableName;
+    private ExportFormat format;
+    private Long rowCount;
+    /**
+     * Размер выгрузки в байтах до сжатия
+     */
+    private Long bytesWritten;
+    private Long durationMs;
+}
@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryComparisonRequestDTO {
+
+    private List<Long> storeIds;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,18 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportChunkErrorDTO {
+
+    private Integer chunk;
+    private Long firstRecord;
+    private Long lastRecord;
+    private String message;
+}
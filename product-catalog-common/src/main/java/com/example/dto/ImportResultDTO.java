@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportResultDTO {
+
+    private Long totalRecords;
+    private Long importedRecords;
+    private Long failedRecords;
+    private Integer chunks;
+    private List<ImportChunkErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import com.example.enums.BatchItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceBatchResultDTO {
+
+    private Integer index;
+    private Long productId;
+    private Long storeId;
+    private Long priceId;
+    private BatchItemStatus status;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceHistoryBucketDTO {
+
+    private LocalDateTime bucketStart;
+    private Integer minPrice;
+    private Integer maxPrice;
+    private Integer firstPrice;
+    private Integer lastPrice;
+    private Double avgPrice;
+    private Long count;
+}
@@ -0,0 +1,29 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Данные проверенного JWT-токена: токен разбирается и проверяется один раз,
+ * дальше фильтр и сервисы работают с этим объектом
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenClaimsDTO {
+
+    private String username;
+    private Long userId;
+    private List<String> roles;
+    private Instant expiresAt;
+    /**
+     * Версия токенов пользователя на момент выдачи, null у токенов, выданных до появления версии
+     */
+    private Integer tokenVersion;
+}
@@ -0,0 +1,21 @@
+package com.example.enums;
+
+import lombok.Getter;
+
+/**
+ * Формат изображения графика истории цен
+ */
+@Getter
+public enum ChartFormat {
+
+    PNG("image/png", "png"),
+    SVG("image/svg+xml", "svg");
+
+    private final String contentType;
+    private final String extension;
+
+    ChartFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.enums;
+
+import lombok.Getter;
+
+/**
+ * Алгоритм сжатия выгружаемых и загружаемых файлов
+ */
+@Getter
+public enum CompressionType {
+
+    NONE(null, "", null),
+    GZIP("gzip", ".gz", "application/gzip"),
+    ZSTD("zstd", ".zst", "application/zstd");
+
+    /**
+     * Значение для заголовков Accept-Encoding и Content-Encoding
+     */
+    private final String encoding;
+    private final String extension;
+    private final String contentType;
+
+    CompressionType(String encoding, String extension, String contentType) {
+        this.encoding = encoding;
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.enums;
+
+import lombok.Getter;
+
+/**
+ * Формат файла выгрузки данных
+ */
+@Getter
+public enum ExportFormat {
+
+    JSON("application/json", "json"),
+    ARROW("application/vnd.apache.arrow.stream", "arrows");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.enums;
+
+/**
+ * Состояние фоновой выгрузки
+ */
+public enum ExportJobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,22 @@
+package com.example.enums;
+
+import lombok.Getter;
+
+/**
+ * Таблица, доступная для выгрузки
+ */
+@Getter
+public enum ExportTable {
+
+    CATEGORIES("categories"),
+    PRODUCTS("products"),
+    STORES("stores"),
+    PRICES("prices"),
+    PRICE_HISTORY("price_history");
+
+    private final String tableName;
+
+    ExportTable(String tableName) {
+        this.tableName = tableName;
+    }
+}
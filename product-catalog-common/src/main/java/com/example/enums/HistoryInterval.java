@@ -0,0 +1,12 @@
+package com.example.enums;
+
+/**
+ * Размер интервала агрегации истории цен
+ */
+public enum HistoryInterval {
+
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,11 @@
+package com.example.exceptions;
+
+import java.time.LocalDateTime;
+
+public class DeltaCursorExpiredException extends RuntimeException {
+
+    public DeltaCursorExpiredException(LocalDateTime from, LocalDateTime horizon) {
+        super("Журнал удалений до " + horizon + " уже очищен, изменения с " + from
+                + " восстановить нельзя. Выполните полную выгрузку");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.exceptions;
+
+public class ExportJobNotFoundException extends RuntimeException {
+
+    public ExportJobNotFoundException(String jobId) {
+        super("Выгрузка с ID " + jobId + " не найдена");
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.exceptions;
+
+public class LoginOverloadedException extends RuntimeException {
+
+    public LoginOverloadedException() {
+        super("Слишком много одновременных входов, повторите запрос позже");
+    }
+}
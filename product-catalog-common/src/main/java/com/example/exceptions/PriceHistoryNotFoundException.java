@@ -1,9 +1,16 @@
 package com.example.exceptions;
 
+import java.util.Collection;
+
 public class PriceHistoryNotFoundException extends RuntimeException {
 
     public PriceHistoryNotFoundException(Long productId, Long storeId) {
         super(String.format("История цен не найдена для продукта ID=%d и магазина ID=%d",
                 productId, storeId));
     }
+
+    public PriceHistoryNotFoundException(Long productId, Collection<Long> storeIds) {
+        super(String.format("История цен не найдена для продукта ID=%d и магазинов ID=%s",
+                productId, storeIds));
+    }
 }
\ No newline at end of file
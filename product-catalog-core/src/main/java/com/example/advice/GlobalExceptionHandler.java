@@ -3,12 +3,18 @@ package com.example.advice;
 import com.example.exceptions.CategoryNotFoundException;
 import com.example.exceptions.DataExportException;
 import com.example.exceptions.DataImportException;
+import com.example.exceptions.DeltaCursorExpiredException;
+import com.example.exceptions.ExportJobNotFoundException;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.exceptions.LoginOverloadedException;
 import com.example.exceptions.PriceHistoryNotFoundException;
 import com.example.exceptions.PriceNotFoundException;
 import com.example.exceptions.ProductNotFoundException;
 import com.example.exceptions.StoreNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -18,6 +24,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestControllerAdvice
 @Slf4j
@@ -25,6 +32,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler({
             CategoryNotFoundException.class,
+            ExportJobNotFoundException.class,
             PriceHistoryNotFoundException.class,
             PriceNotFoundException.class,
             ProductNotFoundException.class,
@@ -43,11 +51,31 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(DeltaCursorExpiredException.class)
+    @ResponseStatus(HttpStatus.GONE)
+    public Map<String, String> handleDeltaCursorExpired(DeltaCursorExpiredException ex) {
+        log.warn("Устаревший курсор инкрементальной выгрузки: {}", ex.getMessage());
+        return Map.of(
+                "error", "DELTA_CURSOR_EXPIRED",
+                "message", ex.getMessage()
+        );
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<?> handleBadCredentials(BadCredentialsException ex) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Неверные имя пользователя или пароль");
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        log.warn("Нарушение целостности данных: {}", ex.getMostSpecificCause().getMessage());
+        return Map.of(
+                "error", "DATA_INTEGRITY_VIOLATION",
+                "message", "Операция нарушает ограничения целостности данных"
+        );
+    }
+
     @ExceptionHandler(DataAccessException.class)
     @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
     public Map<String, String> handleDataAccessException(DataAccessException ex) {
@@ -58,6 +86,38 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleInvalidRequestParameter(InvalidRequestParameterException ex) {
+        log.warn("Некорректный параметр запроса: {}", ex.getMessage());
+        return Map.of(
+                "error", "INVALID_ARGUMENT",
+                "message", ex.getMessage()
+        );
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecution(RejectedExecutionException ex) {
+        log.warn("Задача отклонена из-за перегрузки: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "error", "SERVICE_OVERLOADED",
+                        "message", "Сервис перегружен, повторите запрос позже"
+                ));
+    }
+
+    @ExceptionHandler(LoginOverloadedException.class)
+    public ResponseEntity<Map<String, String>> handleLoginOverloaded(LoginOverloadedException ex) {
+        log.warn("Вход отклонен: очередь проверки паролей заполнена");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "error", "TOO_MANY_LOGIN_REQUESTS",
+                        "message", ex.getMessage()
+                ));
+    }
+
     @ExceptionHandler(IOException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, String> handleIOException(IOException ex) {
@@ -4,45 +4,40 @@ import com.example.dto.LoginDTO;
 import com.example.dto.RegisterDTO;
 import com.example.entity.security.User;
 import com.example.enums.UserRole;
+import com.example.service.security.LoginService;
 import com.example.service.security.UserService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping(value = "/auth", produces = "application/json; charset=UTF-8")
 public class AuthController {
 
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
 
-    public AuthController(UserService userService, AuthenticationManager authenticationManager,
+    public AuthController(UserService userService, LoginService loginService,
                           PasswordEncoder passwordEncoder) {
         this.userService = userService;
-        this.authenticationManager = authenticationManager;
+        this.loginService = loginService;
         this.passwordEncoder = passwordEncoder;
     }
 
+    /**
+     * Пароль проверяется в пуле LoginService, поток сервлета освобождается до готовности токена
+     */
     @PostMapping("/login")
-    public ResponseEntity<String> login(@RequestBody LoginDTO loginDTO) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginDTO.getUsername(),
-                        loginDTO.getPassword())
-        );
-
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-        String jwt = userService.generateToken(userDetails);
-        return ResponseEntity.ok(jwt);
-
+    public CompletableFuture<ResponseEntity<String>> login(@RequestBody LoginDTO loginDTO) {
+        return loginService.login(loginDTO.getUsername(), loginDTO.getPassword())
+                .thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/register")
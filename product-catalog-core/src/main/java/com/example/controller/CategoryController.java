@@ -2,13 +2,20 @@ package com.example.controller;
 
 import com.example.dto.CategoryDTO;
 import com.example.dto.CategoryCreateDTO;
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.entity.Category;
+import com.example.entity.security.User;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportTable;
 import com.example.mapper.CategoryMapper;
 import com.example.service.CategoryService;
 import com.example.service.DataLogService;
+import com.example.service.DeltaExportService;
 import com.example.service.security.UserService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import com.example.utils.ExportResponses;
+import com.example.utils.StreamCompression;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -20,13 +27,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -37,13 +48,16 @@ public class CategoryController {
     private final CategoryMapper categoryMapper;
     private final DataLogService dataLogService;
     private final UserService userService;
+    private final DeltaExportService deltaExportService;
 
     public CategoryController(CategoryService categoryService, CategoryMapper categoryMapper,
-                              DataLogService dataLogService, UserService userService) {
+                              DataLogService dataLogService, UserService userService,
+                              DeltaExportService deltaExportService) {
         this.categoryService = categoryService;
         this.categoryMapper = categoryMapper;
         this.dataLogService = dataLogService;
         this.userService = userService;
+        this.deltaExportService = deltaExportService;
     }
 
     @PostMapping
@@ -123,34 +137,52 @@ public class CategoryController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<Resource> exportCategories() throws IOException {
-        byte[] data = categoryService.exportCategoriesToJson();
-        InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(data));
-
-        dataLogService.logOperation("EXPORT", "categories",
-                (long) categoryService.getAllCategories().size(), userService.getCurrentUser());
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"categories.json\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .contentLength(data.length)
-                .body(resource);
+    public ResponseEntity<StreamingResponseBody> exportCategories(
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream ->
+                dataLogService.logExport(categoryService.exportCategoriesToJson(outputStream), user);
+
+        return ExportResponses.stream("categories.json", MediaType.APPLICATION_JSON_VALUE,
+                compression, acceptEncoding, body);
+    }
+
+    /**
+     * Инкрементальная выгрузка: строки, измененные после since или курсора предыдущей выгрузки,
+     * и id удаленных строк. Без параметров выгружаются все строки и курсор для следующей выгрузки
+     */
+    @GetMapping("/export/delta")
+    public ResponseEntity<StreamingResponseBody> exportCategoriesDelta(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DeltaWindowDTO window = deltaExportService.openWindow(since, cursor);
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream -> dataLogService.logExport(
+                deltaExportService.exportDelta(ExportTable.CATEGORIES, window, outputStream), user);
+
+        return ExportResponses.stream("categories-delta.json", MediaType.APPLICATION_JSON_VALUE,
+                compression, acceptEncoding, body);
     }
 
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<CategoryDTO>> importCategories(
+    public ResponseEntity<ImportResultDTO> importCategories(
             @RequestPart("file") MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<CategoryDTO> categoryDTOS = categoryService.importCategoriesFromJson(file.getBytes());
+        ImportResultDTO result;
+        try (InputStream inputStream = StreamCompression.decompress(file.getInputStream())) {
+            result = categoryService.importCategoriesFromJson(inputStream);
+        }
 
         dataLogService.logOperation("IMPORT", "categories",
-                (long) categoryDTOS.size(), userService.getCurrentUser());
+                result.getImportedRecords(), userService.getCurrentUser());
 
-        return ResponseEntity.ok(categoryDTOS);
+        return ResponseEntity.ok(result);
     }
 }
\ No newline at end of file
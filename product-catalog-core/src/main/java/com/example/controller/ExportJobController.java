@@ -0,0 +1,107 @@
+package com.example.controller;
+
+import com.example.dto.ExportJobDTO;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportJobStatus;
+import com.example.enums.ExportTable;
+import com.example.service.ExportJobService;
+import com.example.service.security.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+@RestController
+@RequestMapping("/exports")
+public class ExportJobController {
+
+    // Атрибуты запроса Tomcat для отправки файла через sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final ExportJobService exportJobService;
+    private final UserService userService;
+
+    public ExportJobController(ExportJobService exportJobService, UserService userService) {
+        this.exportJobService = exportJobService;
+        this.userService = userService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ExportJobDTO> startExport(@RequestParam ExportTable table,
+                                                    @RequestParam(defaultValue = "JSON") ExportFormat format,
+                                                    @RequestParam(defaultValue = "NONE") CompressionType compression) {
+        ExportJobDTO job = exportJobService.startExport(table, format, compression, userService.getCurrentUser());
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{jobId}")
+                .buildAndExpand(job.getJobId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ExportJobDTO> getExport(@PathVariable String jobId) {
+        return ResponseEntity.ok(exportJobService.getJob(jobId));
+    }
+
+    /**
+     * Отдает файл завершенной выгрузки. Под Tomcat файл передается через sendfile,
+     * иначе копируется FileChannel.transferTo в канал ответа
+     */
+    @GetMapping("/{jobId}/file")
+    public ResponseEntity<StreamingResponseBody> downloadExport(@PathVariable String jobId,
+                                                                HttpServletRequest request) throws IOException {
+        ExportJobDTO job = exportJobService.getJob(jobId);
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        Path file = exportJobService.getResultFile(jobId);
+        long size = Files.size(file);
+        String contentType = job.getCompression() == CompressionType.NONE
+                ? job.getFormat().getContentType()
+                : job.getCompression().getContentType();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"")
+                .contentType(MediaType.parseMediaType(contentType))
+                .contentLength(size);
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return builder.build();
+        }
+
+        return builder.body(outputStream -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        });
+    }
+}
@@ -1,19 +1,32 @@
 package com.example.controller;
 
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.HistoryComparisonRequestDTO;
 import com.example.dto.HistoryRequestDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.dto.PriceBatchResultDTO;
 import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryBucketDTO;
 import com.example.dto.PriceHistoryDTO;
 import com.example.dto.PriceCreateDTO;
 import com.example.entity.Price;
-import com.example.mapper.PriceHistoryMapper;
+import com.example.entity.security.User;
+import com.example.enums.ChartFormat;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportTable;
+import com.example.enums.HistoryInterval;
 import com.example.mapper.PriceMapper;
 import com.example.service.DataLogService;
+import com.example.service.DeltaExportService;
 import com.example.service.PriceService;
 import com.example.service.ProductService;
 import com.example.service.StoreService;
 import com.example.service.security.UserService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import com.example.utils.ChartGenerator;
+import com.example.utils.ExportResponses;
+import com.example.utils.StreamCompression;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -25,15 +38,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/prices")
@@ -43,21 +60,21 @@ public class PriceController {
     private final ProductService productService;
     private final StoreService storeService;
     private final PriceMapper priceMapper;
-    private final PriceHistoryMapper priceHistoryMapper;
     private final UserService userService;
     private final DataLogService dataLogService;
+    private final DeltaExportService deltaExportService;
 
     public PriceController(PriceService priceService, ProductService productService, 
                            StoreService storeService, PriceMapper priceMapper,
-                           PriceHistoryMapper priceHistoryMapper, UserService userService,
-                           DataLogService dataLogService) {
+                           UserService userService, DataLogService dataLogService,
+                           DeltaExportService deltaExportService) {
         this.priceService = priceService;
         this.productService = productService;
         this.storeService = storeService;
         this.priceMapper = priceMapper;
-        this.priceHistoryMapper = priceHistoryMapper;
         this.userService = userService;
         this.dataLogService = dataLogService;
+        this.deltaExportService = deltaExportService;
     }
 
     @PostMapping
@@ -71,6 +88,12 @@ public class PriceController {
         return ResponseEntity.status(HttpStatus.CREATED).body(priceDTO);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<PriceBatchResultDTO>> createPrices(@RequestBody List<PriceCreateDTO> createDTOs) {
+        List<PriceBatchResultDTO> results = priceService.createPrices(createDTOs);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<PriceDTO> getPriceById(@PathVariable Long id) {
         Price price = priceService.getPriceById(id);
@@ -91,6 +114,14 @@ public class PriceController {
         return ResponseEntity.ok(priceDTO);
     }
 
+    @PutMapping
+    public ResponseEntity<PriceDTO> upsertPrice(@RequestBody PriceCreateDTO upsertDTO) {
+        PriceDTO priceDTO = priceService.upsertPrice(upsertDTO.getProductId(),
+                upsertDTO.getStoreId(),
+                upsertDTO.getPrice());
+        return ResponseEntity.ok(priceDTO);
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<PriceDTO> partialUpdateCategory(@PathVariable Long id,
                                                              @RequestBody PriceCreateDTO updateDTO) {
@@ -123,9 +154,7 @@ public class PriceController {
 
     @GetMapping
     public ResponseEntity<List<PriceDTO>> getAllPrices() {
-        List<Price> prices = priceService.getAllPrices();
-
-        List<PriceDTO> priceDTOS = priceMapper.toDtoList(prices);
+        List<PriceDTO> priceDTOS = priceService.getAllPrices();
         return ResponseEntity.ok(priceDTOS);
     }
 
@@ -142,13 +171,11 @@ public class PriceController {
     public ResponseEntity<List<PriceHistoryDTO>> getPriceHistory(@PathVariable Long productId,
                                                                  @RequestBody HistoryRequestDTO request) {
         List<PriceHistoryDTO> priceHistoryDTOS = priceService.getPriceHistoryByProductIdAndDataRange(
-                        productId,
-                        request.getStoreId(),
-                        request.getStartDate(),
-                        request.getEndDate()
-                ).stream()
-                .map(priceHistoryMapper::toDto)
-                .collect(Collectors.toList());
+                productId,
+                request.getStoreId(),
+                request.getStartDate(),
+                request.getEndDate()
+        );
 
         if (priceHistoryDTOS.isEmpty()) {
             return ResponseEntity.notFound().build();
@@ -157,50 +184,147 @@ public class PriceController {
         }
     }
 
+    @PostMapping(value = "/history/stream/{productId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPriceHistory(@PathVariable Long productId,
+                                                                    @RequestBody HistoryRequestDTO request) {
+        StreamingResponseBody body = outputStream -> priceService.writePriceHistoryAsNdjson(
+                productId,
+                request.getStoreId(),
+                request.getStartDate(),
+                request.getEndDate(),
+                outputStream
+        );
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PostMapping("/history/buckets/{productId}")
+    public ResponseEntity<List<PriceHistoryBucketDTO>> getPriceHistoryBuckets(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "DAY") HistoryInterval interval,
+            @RequestBody HistoryRequestDTO request) {
+        List<PriceHistoryBucketDTO> buckets = priceService.getPriceHistoryBuckets(
+                productId,
+                request.getStoreId(),
+                request.getStartDate(),
+                request.getEndDate(),
+                interval
+        );
+
+        if (buckets.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(buckets);
+    }
+
     @PostMapping("/history/chart/{productId}")
-    public ResponseEntity<byte[]> getPriceHistoryChart(@PathVariable Long productId,
-                                                       @RequestBody HistoryRequestDTO request) throws IOException{
-            byte[] chartBytes = priceService.generatePriceHistoryChart(
-                    productId,
-                    request.getStoreId(),
-                    request.getStartDate(),
-                    request.getEndDate()
-            );
+    public CompletableFuture<ResponseEntity<byte[]>> getPriceHistoryChart(
+            @PathVariable Long productId,
+            @RequestBody HistoryRequestDTO request,
+            @RequestParam(defaultValue = ChartGenerator.DEFAULT_WIDTH_PARAM) int width,
+            @RequestParam(defaultValue = ChartGenerator.DEFAULT_HEIGHT_PARAM) int height,
+            @RequestParam(defaultValue = "PNG") ChartFormat format) {
+        return priceService.generatePriceHistoryChart(
+                        productId,
+                        request.getStoreId(),
+                        request.getStartDate(),
+                        request.getEndDate(),
+                        width,
+                        height,
+                        format
+                )
+                .thenApply(chartBytes -> ResponseEntity.ok()
+                        .header("Content-Disposition", "attachment; filename=price_chart." + format.getExtension())
+                        .contentType(MediaType.parseMediaType(format.getContentType()))
+                        .body(chartBytes));
+    }
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=price_chart.png")
-                    .contentType(MediaType.IMAGE_PNG)
-                    .body(chartBytes);
+    @PostMapping("/history/chart/compare/{productId}")
+    public CompletableFuture<ResponseEntity<byte[]>> getPriceComparisonChart(
+            @PathVariable Long productId,
+            @RequestBody HistoryComparisonRequestDTO request,
+            @RequestParam(defaultValue = ChartGenerator.DEFAULT_WIDTH_PARAM) int width,
+            @RequestParam(defaultValue = ChartGenerator.DEFAULT_HEIGHT_PARAM) int height,
+            @RequestParam(defaultValue = "PNG") ChartFormat format) {
+        return priceService.generatePriceComparisonChart(
+                        productId,
+                        request.getStoreIds(),
+                        request.getStartDate(),
+                        request.getEndDate(),
+                        width,
+                        height,
+                        format
+                )
+                .thenApply(chartBytes -> ResponseEntity.ok()
+                        .header("Content-Disposition",
+                                "attachment; filename=price_comparison_chart." + format.getExtension())
+                        .contentType(MediaType.parseMediaType(format.getContentType()))
+                        .body(chartBytes));
     }
 
     @GetMapping("/export")
-    public ResponseEntity<Resource> exportPrices() throws IOException {
-        byte[] data = priceService.exportPricesToJson();
-        InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(data));
+    public ResponseEntity<StreamingResponseBody> exportPrices(
+            @RequestParam(defaultValue = "JSON") ExportFormat format,
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream ->
+                dataLogService.logExport(priceService.exportPrices(format, outputStream), user);
 
-        dataLogService.logOperation("EXPORT", "prices",
-                (long) priceService.getAllPrices().size(), userService.getCurrentUser());
+        return ExportResponses.stream("prices." + format.getExtension(), format.getContentType(),
+                compression, acceptEncoding, body);
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"prices.json\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .contentLength(data.length)
-                .body(resource);
+    /**
+     * Инкрементальная выгрузка: строки, измененные после since или курсора предыдущей выгрузки,
+     * и id удаленных строк. Без параметров выгружаются все строки и курсор для следующей выгрузки
+     */
+    @GetMapping("/export/delta")
+    public ResponseEntity<StreamingResponseBody> exportPricesDelta(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DeltaWindowDTO window = deltaExportService.openWindow(since, cursor);
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream -> dataLogService.logExport(
+                deltaExportService.exportDelta(ExportTable.PRICES, window, outputStream), user);
+
+        return ExportResponses.stream("prices-delta.json", MediaType.APPLICATION_JSON_VALUE,
+                compression, acceptEncoding, body);
+    }
+
+    @GetMapping("/history/export")
+    public ResponseEntity<StreamingResponseBody> exportPriceHistory(
+            @RequestParam(defaultValue = "JSON") ExportFormat format,
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream ->
+                dataLogService.logExport(priceService.exportPriceHistory(format, outputStream), user);
+
+        return ExportResponses.stream("price_history." + format.getExtension(), format.getContentType(),
+                compression, acceptEncoding, body);
     }
 
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<PriceDTO>> importPrices(
+    public ResponseEntity<ImportResultDTO> importPrices(
             @RequestPart("file") MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-            List<PriceDTO> priceDTOS = priceService.importPricesFromJson(file.getBytes());
+        ImportResultDTO result;
+        try (InputStream inputStream = StreamCompression.decompress(file.getInputStream())) {
+            result = priceService.importPricesFromJson(inputStream);
+        }
 
-            dataLogService.logOperation("IMPORT", "prices",
-                    (long) priceDTOS.size(), userService.getCurrentUser());
+        dataLogService.logOperation("IMPORT", "prices",
+                result.getImportedRecords(), userService.getCurrentUser());
 
-            return ResponseEntity.ok(priceDTOS);
+        return ResponseEntity.ok(result);
     }
 }
\ No newline at end of file
@@ -1,15 +1,22 @@
 package com.example.controller;
 
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.ProductDTO;
 import com.example.dto.ProductCreateDTO;
 import com.example.entity.Product;
+import com.example.entity.security.User;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportTable;
 import com.example.mapper.ProductMapper;
 import com.example.service.CategoryService;
 import com.example.service.DataLogService;
+import com.example.service.DeltaExportService;
 import com.example.service.ProductService;
 import com.example.service.security.UserService;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import com.example.utils.ExportResponses;
+import com.example.utils.StreamCompression;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -21,13 +28,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -39,15 +50,17 @@ public class ProductController {
     private final ProductMapper productMapper;
     private final DataLogService dataLogService;
     private final UserService userService;
+    private final DeltaExportService deltaExportService;
 
     public ProductController(ProductService productService, CategoryService categoryService,
                              ProductMapper productMapper, DataLogService dataLogService,
-                             UserService userService) {
+                             UserService userService, DeltaExportService deltaExportService) {
         this.productService = productService;
         this.categoryService = categoryService;
         this.productMapper = productMapper;
         this.dataLogService = dataLogService;
         this.userService = userService;
+        this.deltaExportService = deltaExportService;
     }
 
     @PostMapping
@@ -124,34 +137,52 @@ public class ProductController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<Resource> exportProducts() throws IOException {
-        byte[] data = productService.exportProductsToJson();
-        InputStreamResource resource = new InputStreamResource(new ByteArrayInputStream(data));
-
-        dataLogService.logOperation("EXPORT", "products",
-                (long) productService.getAllProducts().size(), userService.getCurrentUser());
-
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"products.json\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .contentLength(data.length)
-                .body(resource);
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream ->
+                dataLogService.logExport(productService.exportProductsToJson(outputStream), user);
+
+        return ExportResponses.stream("products.json", MediaType.APPLICATION_JSON_VALUE,
+                compression, acceptEncoding, body);
+    }
+
+    /**
+     * Инкрементальная выгрузка: строки, измененные после since или курсора предыдущей выгрузки,
+     * и id удаленных строк. Без параметров выгружаются все строки и курсор для следующей выгрузки
+     */
+    @GetMapping("/export/delta")
+    public ResponseEntity<StreamingResponseBody> exportProductsDelta(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) CompressionType compression,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        DeltaWindowDTO window = deltaExportService.openWindow(since, cursor);
+        User user = userService.getCurrentUser();
+        StreamingResponseBody body = outputStream -> dataLogService.logExport(
+                deltaExportService.exportDelta(ExportTable.PRODUCTS, window, outputStream), user);
+
+        return ExportResponses.stream("products-delta.json", MediaType.APPLICATION_JSON_VALUE,
+                compression, acceptEncoding, body);
     }
 
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<ProductDTO>> importProducts(
+    public ResponseEntity<ImportResultDTO> importProducts(
             @RequestPart("file") MultipartFile file) throws IOException {
         if (file.isEmpty()) {
             return ResponseEntity.badRequest().build();
         }
 
-        List<ProductDTO> productDTOS = productService.importProductsFromJson(file.getBytes());
+        ImportResultDTO result;
+        try (InputStream inputStream = StreamCompression.decompress(file.getInputStream())) {
+            result = productService.importProductsFromJson(inputStream);
+        }
 
         dataLogService.logOperation("IMPORT", "products",
-                (long) productDTOS.size(), userService.getCurrentUser());
+                result.getImportedRecords(), userService.getCurrentUser());
 
-        return ResponseEntity.ok(productDTOS);
+        return ResponseEntity.ok(result);
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.example.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала удалений для инкрементальной выгрузки. Строки добавляются триггерами БД
+ * при удалении категорий, магазинов, продуктов и цен, приложение их только читает и очищает
+ */
+@Entity
+@Table(name = "deleted_rows")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DeletedRow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "deleted_row_id")
+    private Long deletedRowId;
+
+    @Column(name = "table_name", nullable = false, length = 50)
+    private String tableName;
+
+    @Column(name = "row_id", nullable = false)
+    private Long rowId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
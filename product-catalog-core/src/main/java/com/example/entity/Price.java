@@ -9,6 +9,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,7 +25,8 @@ import java.time.LocalDateTime;
 public class Price {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prices_seq")
+    @SequenceGenerator(name = "prices_seq", sequenceName = "prices_price_id_seq", allocationSize = 50)
     @Column(name = "price_id")
     private Long priceId;
 
@@ -42,6 +44,12 @@ public class Price {
     @Column(name = "recorded_at", updatable = false)
     private LocalDateTime recordedAt;
 
+    /**
+     * Время последнего изменения строки. Выставляется триггером БД при вставке и обновлении
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
     public Price(Product product, Store store, Integer price) {
         this.product = product;
         this.store = store;
@@ -57,6 +57,12 @@ public class User {
     @Column(name = "is_verified", nullable = false)
     private Boolean isVerified = false;
 
+    /**
+     * Версия выданных токенов. Изменяется только запросом UserRepository.incrementTokenVersion
+     */
+    @Column(name = "token_version", insertable = false, updatable = false)
+    private Integer tokenVersion;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,10 @@
+package com.example.event;
+
+/**
+ * Событие добавления записей в историю цен для пары товар-магазин
+ *
+ * @param productId id товара
+ * @param storeId id магазина
+ */
+public record PriceHistoryAppendedEvent(Long productId, Long storeId) {
+}
@@ -1,5 +1,6 @@
 package com.example.filter;
 
+import com.example.dto.TokenClaimsDTO;
 import com.example.service.security.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -36,11 +37,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
                 String jwt = authorizationHeader.substring(7);
-                String username = userService.extractUsername(jwt);
+                // Подпись и срок действия проверяются один раз, дальше используются уже разобранные данные
+                TokenClaimsDTO claims = userService.parseToken(jwt);
 
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userService.loadUserByUsername(username);
-                    if (userService.validateToken(jwt, userDetails)) {
+                if (claims.getUsername() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    UserDetails userDetails = userService.loadUserFromToken(claims);
+                    if (userService.validateToken(claims, userDetails)) {
                         UsernamePasswordAuthenticationToken authenticationToken =
                                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                         authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -1,13 +1,19 @@
 package com.example.repository;
 
+import com.example.dto.CategoryDTO;
 import com.example.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
@@ -18,6 +24,31 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
     @Query("SELECT c FROM Category c LEFT JOIN FETCH c.subCategories")
     List<Category> findAllWithSubCategories();
 
+    /**
+     * Потоковое чтение всех категорий сразу в виде DTO. Строки читаются курсором порциями по 1000,
+     * поток должен закрываться внутри транзакции
+     *
+     * @return поток DTO категорий
+     */
+    @Query("SELECT new com.example.dto.CategoryDTO(c.categoryId, c.categoryName, parent.categoryId, " +
+            "c.createdAt, c.updatedAt) FROM Category c LEFT JOIN c.parent parent")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CategoryDTO> streamAllAsDto();
+
+    /**
+     * Потоковое чтение категорий, измененных в окне (from, to], сразу в виде DTO.
+     * Поток должен закрываться внутри транзакции
+     *
+     * @param from начало окна, не включается
+     * @param to конец окна, включается
+     * @return поток DTO измененных категорий
+     */
+    @Query("SELECT new com.example.dto.CategoryDTO(c.categoryId, c.categoryName, parent.categoryId, " +
+            "c.createdAt, c.updatedAt) FROM Category c LEFT JOIN c.parent parent " +
+            "WHERE c.updatedAt > :from AND c.updatedAt <= :to")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CategoryDTO> streamChangedAsDto(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
     /**
      * Получить подкатегории по id родительской категории
      */
@@ -0,0 +1,49 @@
+package com.example.repository;
+
+import com.example.entity.DeletedRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+@Repository
+public interface DeletedRowRepository extends JpaRepository<DeletedRow, Long> {
+
+    /**
+     * Потоковое чтение id строк таблицы, удаленных в окне (from, to]. Поток должен закрываться внутри транзакции
+     *
+     * @param tableName имя таблицы
+     * @param from начало окна, не включается
+     * @param to конец окна, включается
+     * @return поток id удаленных строк
+     */
+    @Query("SELECT d.rowId FROM DeletedRow d " +
+            "WHERE d.tableName = :tableName AND d.deletedAt > :from AND d.deletedAt <= :to")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Long> streamDeletedIds(@Param("tableName") String tableName,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    /**
+     * Удаление записей журнала старше заданного времени
+     *
+     * @param before граница срока хранения
+     * @return количество удаленных записей
+     */
+    @Modifying
+    @Query("DELETE FROM DeletedRow d WHERE d.deletedAt < :before")
+    int deleteByDeletedAtBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Текущее время по часам БД, которыми триггеры заполняют updated_at и deleted_at
+     */
+    @Query(value = "SELECT LOCALTIMESTAMP", nativeQuery = true)
+    LocalDateTime currentTimestamp();
+}
@@ -1,34 +1,172 @@
 package com.example.repository;
 
+import com.example.dto.PriceHistoryDTO;
 import com.example.entity.PriceHistory;
+import com.example.repository.projection.PriceHistoryBucket;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PriceHistoryRepository extends JpaRepository<PriceHistory, Long> {
 
     /**
-     * Получить историю цен по продукту и магазину в заданном диапазоне дат
+     * Получить историю цен по продукту и магазину в заданном диапазоне дат сразу в виде DTO,
+     * без загрузки сущностей PriceHistory, Product и Store
      *
      * @param productId ID продукта
      * @param storeId ID магазина
      * @param startDate начало диапазона
      * @param endDate конец диапазона
-     * @return список записей истории цен
+     * @return список DTO истории цен в порядке возрастания времени
      */
-    @Query("SELECT ph FROM PriceHistory ph " +
+    @Query("SELECT new com.example.dto.PriceHistoryDTO(" +
+            "ph.priceHistoryId, ph.product.productId, ph.store.storeId, ph.price, ph.recordedAt) " +
+            "FROM PriceHistory ph " +
             "WHERE ph.product.productId = :productId " +
             "AND ph.store.storeId = :storeId " +
-            "AND ph.recordedAt BETWEEN :startDate AND :endDate")
-    List<PriceHistory> findByProductIdAndStoreIdAndDateRange(
+            "AND ph.recordedAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY ph.recordedAt")
+    List<PriceHistoryDTO> findByProductIdAndStoreIdAndDateRange(
             @Param("productId") Long productId,
             @Param("storeId") Long storeId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
+
+    /**
+     * Получить историю цен продукта сразу по нескольким магазинам одним запросом.
+     * Строки сгруппированы по магазину и внутри магазина упорядочены по времени
+     *
+     * @param productId ID продукта
+     * @param storeIds ID магазинов
+     * @param startDate начало диапазона
+     * @param endDate конец диапазона
+     * @return список DTO истории цен, упорядоченный по магазину и времени
+     */
+    @Query("SELECT new com.example.dto.PriceHistoryDTO(" +
+            "ph.priceHistoryId, ph.product.productId, ph.store.storeId, ph.price, ph.recordedAt) " +
+            "FROM PriceHistory ph " +
+            "WHERE ph.product.productId = :productId " +
+            "AND ph.store.storeId IN :storeIds " +
+            "AND ph.recordedAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY ph.store.storeId, ph.recordedAt")
+    List<PriceHistoryDTO> findByProductIdAndStoreIdsAndDateRange(
+            @Param("productId") Long productId,
+            @Param("storeIds") Collection<Long> storeIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * Потоково получить историю цен по продукту и магазину в заданном диапазоне дат сразу в виде DTO.
+     * Строки читаются курсором порциями по 1000, поток должен закрываться внутри транзакции
+     *
+     * @param productId ID продукта
+     * @param storeId ID магазина
+     * @param startDate начало диапазона
+     * @param endDate конец диапазона
+     * @return поток записей истории цен в порядке возрастания времени
+     */
+    @Query("SELECT new com.example.dto.PriceHistoryDTO(" +
+            "ph.priceHistoryId, ph.product.productId, ph.store.storeId, ph.price, ph.recordedAt) " +
+            "FROM PriceHistory ph " +
+            "WHERE ph.product.productId = :productId " +
+            "AND ph.store.storeId = :storeId " +
+            "AND ph.recordedAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY ph.recordedAt")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PriceHistoryDTO> streamByProductIdAndStoreIdAndDateRange(
+            @Param("productId") Long productId,
+            @Param("storeId") Long storeId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * Получить агрегаты истории цен по интервалам, вычисленные в БД
+     *
+     * @param productId ID продукта
+     * @param storeId ID магазина
+     * @param interval единица date_trunc: hour, day, week или month
+     * @param startDate начало диапазона
+     * @param endDate конец диапазона
+     * @return агрегаты по интервалам в порядке возрастания времени
+     */
+    @Query(value = "SELECT date_trunc(CAST(:interval AS TEXT), ph.recorded_at) AS \"bucketStart\", " +
+            "MIN(ph.price) AS \"minPrice\", " +
+            "MAX(ph.price) AS \"maxPrice\", " +
+            "(array_agg(ph.price ORDER BY ph.recorded_at, ph.price_history_id))[1] AS \"firstPrice\", " +
+            "(array_agg(ph.price ORDER BY ph.recorded_at DESC, ph.price_history_id DESC))[1] AS \"lastPrice\", " +
+            "CAST(AVG(ph.price) AS DOUBLE PRECISION) AS \"avgPrice\", " +
+            "COUNT(*) AS \"count\" " +
+            "FROM price_history ph " +
+            "WHERE ph.product_id = :productId " +
+            "AND ph.store_id = :storeId " +
+            "AND ph.recorded_at BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1 " +
+            "ORDER BY 1",
+            nativeQuery = true)
+    List<PriceHistoryBucket> findBucketsByProductIdAndStoreIdAndDateRange(
+            @Param("productId") Long productId,
+            @Param("storeId") Long storeId,
+            @Param("interval") String interval,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * Получить агрегаты истории цен по интервалам из дневной таблицы-свертки price_history_daily.
+     * Интервал должен быть не меньше суток
+     *
+     * @param productId ID продукта
+     * @param storeId ID магазина
+     * @param interval единица date_trunc: day, week или month
+     * @param startDate первый день диапазона
+     * @param endDate последний день диапазона
+     * @return агрегаты по интервалам в порядке возрастания времени
+     */
+    @Query(value = "SELECT date_trunc(CAST(:interval AS TEXT), CAST(d.day AS TIMESTAMP)) AS \"bucketStart\", " +
+            "MIN(d.min_price) AS \"minPrice\", " +
+            "MAX(d.max_price) AS \"maxPrice\", " +
+            "(array_agg(d.first_price ORDER BY d.first_recorded_at))[1] AS \"firstPrice\", " +
+            "(array_agg(d.last_price ORDER BY d.last_recorded_at DESC))[1] AS \"lastPrice\", " +
+            "CAST(SUM(d.price_sum) AS DOUBLE PRECISION) / SUM(d.price_count) AS \"avgPrice\", " +
+            "CAST(SUM(d.price_count) AS BIGINT) AS \"count\" " +
+            "FROM price_history_daily d " +
+            "WHERE d.product_id = :productId " +
+            "AND d.store_id = :storeId " +
+            "AND d.day BETWEEN :startDate AND :endDate " +
+            "GROUP BY 1 " +
+            "ORDER BY 1",
+            nativeQuery = true)
+    List<PriceHistoryBucket> findDailyRollupBucketsByProductIdAndStoreIdAndDateRange(
+            @Param("productId") Long productId,
+            @Param("storeId") Long storeId,
+            @Param("interval") String interval,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Потоковое чтение всей истории цен в виде DTO для выгрузки. Строки читаются курсором порциями по 1000,
+     * поток должен закрываться внутри транзакции
+     *
+     * @return поток DTO истории цен
+     */
+    @Query("SELECT new com.example.dto.PriceHistoryDTO(" +
+            "ph.priceHistoryId, ph.product.productId, ph.store.storeId, ph.price, ph.recordedAt) " +
+            "FROM PriceHistory ph")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PriceHistoryDTO> streamAllAsDto();
 }
@@ -1,26 +1,116 @@
 package com.example.repository;
 
+import com.example.dto.PriceDTO;
 import com.example.entity.Price;
+import com.example.repository.projection.PriceUpsertResult;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PriceRepository extends JpaRepository<Price, Long> {
 
     /**
-     * Получение всех цен с загрузкой связанных сущностей: Product и Store
+     * Получение всех цен сразу в виде DTO, без загрузки сущностей Price, Product и Store
      */
-    @Query("SELECT p FROM Price p JOIN FETCH p.product JOIN FETCH p.store")
-    List<Price> findAllWithProductAndStore();
+    @Query("SELECT new com.example.dto.PriceDTO(p.priceId, p.product.productId, p.store.storeId, p.price, p.recordedAt) " +
+            "FROM Price p")
+    List<PriceDTO> findAllAsDto();
 
     /**
-     * Получение всех цен по продукту
+     * Потоковое чтение всех цен сразу в виде DTO. Строки читаются курсором порциями по 1000,
+     * поток должен закрываться внутри транзакции
+     *
+     * @return поток DTO цен
+     */
+    @Query("SELECT new com.example.dto.PriceDTO(p.priceId, p.product.productId, p.store.storeId, p.price, p.recordedAt) " +
+            "FROM Price p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PriceDTO> streamAllAsDto();
+
+    /**
+     * Потоковое чтение цен, измененных в окне (from, to], сразу в виде DTO.
+     * Поток должен закрываться внутри транзакции
+     *
+     * @param from начало окна, не включается
+     * @param to конец окна, включается
+     * @return поток DTO измененных цен
+     */
+    @Query("SELECT new com.example.dto.PriceDTO(p.priceId, p.product.productId, p.store.storeId, p.price, p.recordedAt) " +
+            "FROM Price p WHERE p.updatedAt > :from AND p.updatedAt <= :to")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<PriceDTO> streamChangedAsDto(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Получение всех цен по продукту сразу в виде DTO
      *
      * @param productId id продукта
+     * @return список DTO цен
+     */
+    @Query("SELECT new com.example.dto.PriceDTO(p.priceId, p.product.productId, p.store.storeId, p.price, p.recordedAt) " +
+            "FROM Price p " +
+            "WHERE p.product.productId = :productId")
+    List<PriceDTO> findDtosByProductId(@Param("productId") Long productId);
+
+    /**
+     * Получение цен, у которых товар и магазин входят в заданные наборы id
+     *
+     * @param productIds id продуктов
+     * @param storeIds id магазинов
      * @return список цен
      */
-    List<Price> findByProduct_ProductId(Long productId);
+    @Query("SELECT p FROM Price p " +
+            "WHERE p.product.productId IN :productIds " +
+            "AND p.store.storeId IN :storeIds")
+    List<Price> findByProductIdsAndStoreIds(@Param("productIds") Collection<Long> productIds,
+                                            @Param("storeIds") Collection<Long> storeIds);
+
+    /**
+     * Вставка или обновление цены по уникальной паре (product_id, store_id) одним запросом.
+     * Если значение цены не изменилось, строка не обновляется и запись в историю не добавляется,
+     * а возвращается текущая строка с признаком changed = false.
+     * Существующая пара обновляется через UPDATE, а INSERT выполняется только для новой пары:
+     * DEFAULT nextval вычисляется до разрешения конфликта, и ON CONFLICT для каждой цены
+     * расходовал бы блок id последовательности. Параллельная вставка той же пары разрешается ON CONFLICT
+     *
+     * @param productId id продукта
+     * @param storeId id магазина
+     * @param price значение цены
+     * @return актуальная строка цены
+     */
+    @Query(value = "WITH existing AS (" +
+            "SELECT price_id FROM prices WHERE product_id = :productId AND store_id = :storeId), " +
+            "updated AS (" +
+            "UPDATE prices SET price = :price " +
+            "WHERE product_id = :productId AND store_id = :storeId AND price IS DISTINCT FROM :price " +
+            "RETURNING price_id, product_id, store_id, price, recorded_at), " +
+            "inserted AS (" +
+            "INSERT INTO prices (product_id, store_id, price, recorded_at) " +
+            "SELECT :productId, :storeId, :price, CURRENT_TIMESTAMP WHERE NOT EXISTS (SELECT 1 FROM existing) " +
+            "ON CONFLICT (product_id, store_id) DO UPDATE SET price = EXCLUDED.price " +
+            "WHERE prices.price IS DISTINCT FROM EXCLUDED.price " +
+            "RETURNING price_id, product_id, store_id, price, recorded_at), " +
+            "upserted AS (SELECT * FROM updated UNION ALL SELECT * FROM inserted), " +
+            "history AS (" +
+            "INSERT INTO price_history (product_id, store_id, price, recorded_at) " +
+            "SELECT product_id, store_id, price, CURRENT_TIMESTAMP FROM upserted) " +
+            "SELECT price_id AS \"priceId\", product_id AS \"productId\", store_id AS \"storeId\", " +
+            "price AS \"price\", recorded_at AS \"recordedAt\", TRUE AS \"changed\" FROM upserted " +
+            "UNION ALL " +
+            "SELECT price_id, product_id, store_id, price, recorded_at, FALSE FROM prices " +
+            "WHERE product_id = :productId AND store_id = :storeId " +
+            "AND NOT EXISTS (SELECT 1 FROM upserted)",
+            nativeQuery = true)
+    PriceUpsertResult upsertPrice(@Param("productId") Long productId,
+                                  @Param("storeId") Long storeId,
+                                  @Param("price") Integer price);
 }
\ No newline at end of file
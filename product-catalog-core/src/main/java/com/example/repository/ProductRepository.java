@@ -1,11 +1,18 @@
 package com.example.repository;
 
+import com.example.dto.ProductDTO;
 import com.example.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -20,4 +27,29 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT p FROM Product p JOIN FETCH p.category")
     List<Product> findAllWithCategory();
+
+    /**
+     * Потоковое чтение всех продуктов сразу в виде DTO. Строки читаются курсором порциями по 1000,
+     * поток должен закрываться внутри транзакции
+     *
+     * @return поток DTO продуктов
+     */
+    @Query("SELECT new com.example.dto.ProductDTO(p.productId, p.productName, p.category.categoryId, " +
+            "p.createdAt, p.updatedAt) FROM Product p")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProductDTO> streamAllAsDto();
+
+    /**
+     * Потоковое чтение продуктов, измененных в окне (from, to], сразу в виде DTO.
+     * Поток должен закрываться внутри транзакции
+     *
+     * @param from начало окна, не включается
+     * @param to конец окна, включается
+     * @return поток DTO измененных продуктов
+     */
+    @Query("SELECT new com.example.dto.ProductDTO(p.productId, p.productName, p.category.categoryId, " +
+            "p.createdAt, p.updatedAt) FROM Product p " +
+            "WHERE p.updatedAt > :from AND p.updatedAt <= :to")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProductDTO> streamChangedAsDto(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
\ No newline at end of file
@@ -1,9 +1,42 @@
 package com.example.repository;
 
+import com.example.dto.StoreDTO;
 import com.example.entity.Store;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
 @Repository
 public interface StoreRepository extends JpaRepository<Store, Long> {
+
+    /**
+     * Потоковое чтение всех магазинов сразу в виде DTO. Строки читаются курсором порциями по 1000,
+     * поток должен закрываться внутри транзакции
+     *
+     * @return поток DTO магазинов
+     */
+    @Query("SELECT new com.example.dto.StoreDTO(s.storeId, s.storeName, s.address, s.createdAt, s.updatedAt) " +
+            "FROM Store s")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<StoreDTO> streamAllAsDto();
+
+    /**
+     * Потоковое чтение магазинов, измененных в окне (from, to], сразу в виде DTO.
+     * Поток должен закрываться внутри транзакции
+     *
+     * @param from начало окна, не включается
+     * @param to конец окна, включается
+     * @return поток DTO измененных магазинов
+     */
+    @Query("SELECT new com.example.dto.StoreDTO(s.storeId, s.storeName, s.address, s.createdAt, s.updatedAt) " +
+            "FROM Store s WHERE s.updatedAt > :from AND s.updatedAt <= :to")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<StoreDTO> streamChangedAsDto(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
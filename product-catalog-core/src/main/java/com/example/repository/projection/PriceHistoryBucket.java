@@ -0,0 +1,23 @@
+package com.example.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Агрегаты истории цен за один интервал
+ */
+public interface PriceHistoryBucket {
+
+    LocalDateTime getBucketStart();
+
+    Integer getMinPrice();
+
+    Integer getMaxPrice();
+
+    Integer getFirstPrice();
+
+    Integer getLastPrice();
+
+    Double getAvgPrice();
+
+    Long getCount();
+}
@@ -0,0 +1,24 @@
+package com.example.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка таблицы prices, возвращенная upsert-запросом
+ */
+public interface PriceUpsertResult {
+
+    Long getPriceId();
+
+    Long getProductId();
+
+    Long getStoreId();
+
+    Integer getPrice();
+
+    LocalDateTime getRecordedAt();
+
+    /**
+     * @return false, если цена совпала с текущей и запись была пропущена
+     */
+    Boolean getChanged();
+}
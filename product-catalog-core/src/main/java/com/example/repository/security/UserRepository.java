@@ -2,6 +2,9 @@ package com.example.repository.security;
 
 import com.example.entity.security.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,4 +16,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Поиск пользователя по имени
      */
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Текущая версия токенов пользователя
+     *
+     * @param userId id пользователя
+     * @return версия или пусто, если пользователь удален
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.userId = :userId")
+    Optional<Integer> findTokenVersionById(@Param("userId") Long userId);
+
+    /**
+     * Увеличивает версию токенов пользователя, после чего ранее выданные токены не принимаются
+     *
+     * @param userId id пользователя
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.userId = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
+
+    /**
+     * Замена хэша пароля без изменения версии токенов
+     *
+     * @param username имя пользователя
+     * @param password новый хэш пароля
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
+}
@@ -1,9 +1,13 @@
 package com.example.service;
 
 import com.example.dto.CategoryDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.entity.Category;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -49,21 +53,25 @@ public interface CategoryService {
     List<Category> getAllCategories();
 
     /**
-     * Экспортирует категории в JSON-формате
+     * Экспортирует категории в JSON-формате потоково: строки читаются из БД курсором
+     * и сразу записываются в выходной поток как элементы JSON-массива
      *
-     * @return массив байтов с данными в JSON-формате
+     * @param outputStream поток для записи JSON, не закрывается
+     * @return количество выгруженных записей, размер и длительность выгрузки
      * @throws IOException при ошибках ввода-вывода
      */
-    byte[] exportCategoriesToJson() throws IOException;
+    ExportResultDTO exportCategoriesToJson(OutputStream outputStream) throws IOException;
 
     /**
-     * Импортирует категории из JSON-данных
+     * Импортирует категории из JSON-массива потоково: записи разбираются по одной
+     * и сохраняются порциями, каждая порция в отдельной транзакции.
+     * Ошибка в порции не отменяет уже сохраненные порции
      *
-     * @param data массив байтов с JSON-данными
-     * @return список импортированных категорий
-     * @throws IOException при ошибках парсинга или ввода-вывода
+     * @param inputStream поток с JSON-массивом, не закрывается
+     * @return итог импорта с количеством записей и ошибками по порциям
+     * @throws IOException при ошибках чтения потока
      */
-    List<CategoryDTO> importCategoriesFromJson(byte[] data) throws IOException;
+    ImportResultDTO importCategoriesFromJson(InputStream inputStream) throws IOException;
 
     /**
      * Получение всех дочерних категорий по родительскому id
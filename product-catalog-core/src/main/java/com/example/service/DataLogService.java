@@ -1,5 +1,6 @@
 package com.example.service;
 
+import com.example.dto.ExportResultDTO;
 import com.example.entity.security.User;
 
 /**
@@ -15,4 +16,12 @@ public interface DataLogService {
      * @param user id пользователя
      */
     void logOperation(String operationType, String tableName, Long recordCount, User user);
+
+    /**
+     * Логирование выгрузки по сведениям, которые вернула сама выгрузка
+     *
+     * @param result результат выгрузки с таблицей и количеством строк
+     * @param user пользователь, выполнивший выгрузку
+     */
+    void logExport(ExportResultDTO result, User user);
 }
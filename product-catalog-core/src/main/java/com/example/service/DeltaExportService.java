@@ -0,0 +1,44 @@
+package com.example.service;
+
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.enums.ExportTable;
+import com.example.exceptions.InvalidRequestParameterException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+/**
+ * Сервис инкрементальной выгрузки: строки, измененные после предыдущей выгрузки, и id удаленных строк
+ */
+public interface DeltaExportService {
+
+    /**
+     * Открывает окно выгрузки. Конец окна берется по часам БД с запасом на еще не зафиксированные транзакции
+     *
+     * @param since время, после которого нужны изменения, может быть null
+     * @param cursor курсор предыдущей выгрузки, может быть null
+     * @return окно выгрузки; без since и cursor - первая выгрузка всех строк
+     * @throws InvalidRequestParameterException если указаны и since, и cursor, или курсор поврежден
+     * @throws com.example.exceptions.DeltaCursorExpiredException если журнал удалений за окно уже очищен
+     */
+    DeltaWindowDTO openWindow(LocalDateTime since, String cursor);
+
+    /**
+     * Выгружает изменения таблицы за окно в JSON: курсор следующей выгрузки, измененные строки и id удаленных
+     *
+     * @param table выгружаемая таблица, кроме истории цен
+     * @param window окно выгрузки
+     * @param outputStream поток для записи, не закрывается
+     * @return количество измененных и удаленных строк, размер и длительность выгрузки
+     * @throws IOException при ошибках ввода-вывода
+     * @throws InvalidRequestParameterException если для таблицы инкрементальная выгрузка не поддерживается
+     */
+    ExportResultDTO exportDelta(ExportTable table, DeltaWindowDTO window, OutputStream outputStream) throws IOException;
+
+    /**
+     * Удаляет записи журнала удалений старше срока хранения
+     */
+    void deleteExpiredTombstones();
+}
@@ -0,0 +1,53 @@
+package com.example.service;
+
+import com.example.dto.ExportJobDTO;
+import com.example.entity.security.User;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportTable;
+import com.example.exceptions.InvalidRequestParameterException;
+
+import java.nio.file.Path;
+
+/**
+ * Сервис фоновых выгрузок: выгрузка пишется в файл на локальном диске в ограниченном пуле потоков,
+ * а готовый файл скачивается отдельным запросом
+ */
+public interface ExportJobService {
+
+    /**
+     * Ставит выгрузку таблицы в очередь
+     *
+     * @param table выгружаемая таблица
+     * @param format формат файла
+     * @param compression сжатие файла
+     * @param user пользователь, запустивший выгрузку, для журнала операций
+     * @return состояние созданной выгрузки
+     * @throws InvalidRequestParameterException если формат не поддерживается для таблицы
+     * @throws java.util.concurrent.RejectedExecutionException если очередь выгрузок заполнена
+     */
+    ExportJobDTO startExport(ExportTable table, ExportFormat format, CompressionType compression, User user);
+
+    /**
+     * Получает состояние выгрузки
+     *
+     * @param jobId id выгрузки
+     * @return состояние выгрузки с количеством записанных байтов
+     * @throws com.example.exceptions.ExportJobNotFoundException если выгрузка не найдена
+     */
+    ExportJobDTO getJob(String jobId);
+
+    /**
+     * Получает файл завершенной выгрузки
+     *
+     * @param jobId id выгрузки
+     * @return путь к файлу
+     * @throws com.example.exceptions.ExportJobNotFoundException если выгрузка не найдена или еще не завершена
+     */
+    Path getResultFile(String jobId);
+
+    /**
+     * Удаляет завершенные выгрузки, срок хранения которых истек, вместе с файлами
+     */
+    void deleteExpiredJobs();
+}
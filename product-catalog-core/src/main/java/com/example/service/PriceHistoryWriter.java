@@ -0,0 +1,26 @@
+package com.example.service;
+
+import com.example.entity.PriceHistory;
+
+import java.util.List;
+
+/**
+ * Сервис записи истории цен. В зависимости от настроек записывает историю
+ * синхронно в текущей транзакции либо через фоновую очередь (write-behind)
+ */
+public interface PriceHistoryWriter {
+
+    /**
+     * Добавляет запись в историю цен
+     *
+     * @param priceHistory запись истории цен
+     */
+    void append(PriceHistory priceHistory);
+
+    /**
+     * Добавляет записи в историю цен
+     *
+     * @param priceHistories записи истории цен
+     */
+    void appendAll(List<PriceHistory> priceHistories);
+}
@@ -1,12 +1,24 @@
 package com.example.service;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.dto.PriceBatchResultDTO;
+import com.example.dto.PriceCreateDTO;
 import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryBucketDTO;
+import com.example.dto.PriceHistoryDTO;
 import com.example.entity.Price;
-import com.example.entity.PriceHistory;
+import com.example.enums.ChartFormat;
+import com.example.enums.ExportFormat;
+import com.example.enums.HistoryInterval;
+import com.example.exceptions.InvalidRequestParameterException;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Интерфейс для управления ценами на товары
@@ -21,6 +33,15 @@ public interface PriceService {
      */
     Price createPrice(Price price);
 
+    /**
+     * Создает цены пакетом: товары и магазины загружаются одним запросом на весь пакет,
+     * а записи цен и истории цен вставляются пакетными JDBC-запросами
+     *
+     * @param createDTOs список DTO для создания цен
+     * @return результат обработки по каждому элементу пакета в исходном порядке
+     */
+    List<PriceBatchResultDTO> createPrices(List<PriceCreateDTO> createDTOs);
+
     /**
      * Получает цену по id
      *
@@ -30,12 +51,24 @@ public interface PriceService {
     Price getPriceById(Long id);
 
     /**
-     * Обновляет существующую цену
+     * Обновляет существующую цену. Если значение, товар и магазин не изменились,
+     * ни цена, ни история цен не перезаписываются
      *
      * @param price сущность цены с обновленными данными
      */
     void updatePrice(Price price);
 
+    /**
+     * Создает или обновляет цену по паре товар-магазин без предварительного поиска id цены.
+     * Запись в истории цен добавляется тем же запросом и только при изменении значения
+     *
+     * @param productId id товара
+     * @param storeId id магазина
+     * @param price значение цены
+     * @return DTO актуальной цены
+     */
+    PriceDTO upsertPrice(Long productId, Long storeId, Integer price);
+
     /**
      * Удаляет цену по id
      *
@@ -46,9 +79,9 @@ public interface PriceService {
     /**
      * Получает список всех цен
      *
-     * @return список сущностей цен
+     * @return список DTO цен
      */
-    List<Price> getAllPrices();
+    List<PriceDTO> getAllPrices();
 
     /**
      * Получает цены по id товара
@@ -65,40 +98,117 @@ public interface PriceService {
      * @param storeId id магазина
      * @param startDate начальная дата периода
      * @param endDate конечная дата периода
-     * @return список сущностей истории цен
+     * @return список DTO истории цен
+     */
+    List<PriceHistoryDTO> getPriceHistoryByProductIdAndDataRange(Long productId,
+                                                                 Long storeId,
+                                                                 LocalDate startDate,
+                                                                 LocalDate endDate);
+
+    /**
+     * Записывает историю цен по id товара и магазина за указанный период в поток в формате NDJSON
+     * (один JSON-объект на строку). Записи читаются из БД курсором и не накапливаются в памяти
+     *
+     * @param productId id товара
+     * @param storeId id магазина
+     * @param startDate начальная дата периода
+     * @param endDate конечная дата периода
+     * @param outputStream поток для записи
+     * @return количество записанных записей
+     * @throws IOException при ошибках записи в поток
+     */
+    long writePriceHistoryAsNdjson(Long productId,
+                                   Long storeId,
+                                   LocalDate startDate,
+                                   LocalDate endDate,
+                                   OutputStream outputStream) throws IOException;
+
+    /**
+     * Получает историю цен, агрегированную по интервалам: минимум, максимум, первая и последняя цена,
+     * среднее и количество записей. Агрегация выполняется в БД; для длинных периодов
+     * с интервалом от суток данные берутся из дневной свертки истории цен
+     *
+     * @param productId id товара
+     * @param storeId id магазина
+     * @param startDate начальная дата периода
+     * @param endDate конечная дата периода
+     * @param interval интервал агрегации
+     * @return список агрегатов по интервалам
      */
-    List<PriceHistory> getPriceHistoryByProductIdAndDataRange(Long productId,
-                                                              Long storeId,
-                                                              LocalDate startDate,
-                                                              LocalDate endDate);
+    List<PriceHistoryBucketDTO> getPriceHistoryBuckets(Long productId,
+                                                       Long storeId,
+                                                       LocalDate startDate,
+                                                       LocalDate endDate,
+                                                       HistoryInterval interval);
 
     /**
-     * Генерирует график истории цен в виде изображения
+     * Генерирует график истории цен в виде изображения. Готовые графики кэшируются,
+     * а построение выполняется в отдельном ограниченном пуле потоков.
+     * Ряд прореживается до двух точек на пиксель ширины графика
      * 
      * @param productId id товара
      * @param storeId id магазина
      * @param startDate начальная дата периода
      * @param endDate конечная дата периода
+     * @param width ширина изображения в пикселях
+     * @param height высота изображения в пикселях
+     * @param format формат изображения
      * @return массив байтов с изображением графика
-     * @throws IOException при ошибках генерации графика
+     * @throws InvalidRequestParameterException если размер изображения вне допустимых границ
+     * @throws java.util.concurrent.RejectedExecutionException если пул построения графиков перегружен
      */
-    byte[] generatePriceHistoryChart(Long productId, Long storeId,
-                                     LocalDate startDate, LocalDate endDate) throws IOException;
+    CompletableFuture<byte[]> generatePriceHistoryChart(Long productId, Long storeId,
+                                                        LocalDate startDate, LocalDate endDate,
+                                                        int width, int height, ChartFormat format);
 
     /**
-     * Экспортирует цены в JSON-формате
-     * 
-     * @return массив байтов с данными в JSON-формате
+     * Генерирует один график сравнения цен товара в нескольких магазинах.
+     * История всех магазинов читается одним запросом, каждый магазин становится отдельным рядом
+     *
+     * @param productId id товара
+     * @param storeIds id сравниваемых магазинов
+     * @param startDate начальная дата периода
+     * @param endDate конечная дата периода
+     * @param width ширина изображения в пикселях
+     * @param height высота изображения в пикселях
+     * @param format формат изображения
+     * @return массив байтов с изображением графика
+     * @throws InvalidRequestParameterException если список магазинов пуст, слишком велик или размер изображения вне границ
+     * @throws java.util.concurrent.RejectedExecutionException если пул построения графиков перегружен
+     */
+    CompletableFuture<byte[]> generatePriceComparisonChart(Long productId, List<Long> storeIds,
+                                                           LocalDate startDate, LocalDate endDate,
+                                                           int width, int height, ChartFormat format);
+
+    /**
+     * Экспортирует цены потоково: строки читаются из БД курсором и сразу записываются в выходной поток
+     * как элементы JSON-массива или пакетами Arrow IPC
+     *
+     * @param format формат выгрузки
+     * @param outputStream поток для записи, не закрывается
+     * @return количество выгруженных записей, размер и длительность выгрузки
      * @throws IOException при ошибках ввода-вывода
      */
-    byte[] exportPricesToJson() throws IOException;
+    ExportResultDTO exportPrices(ExportFormat format, OutputStream outputStream) throws IOException;
 
     /**
-     * Импортирует цены из JSON-данных
-     * 
-     * @param data массив байтов с JSON-данными
-     * @return список импортированных DTO цен
-     * @throws IOException при ошибках парсинга или ввода-вывода
+     * Экспортирует всю историю цен потоково в формате JSON или Arrow IPC
+     *
+     * @param format формат выгрузки
+     * @param outputStream поток для записи, не закрывается
+     * @return количество выгруженных записей, размер и длительность выгрузки
+     * @throws IOException при ошибках ввода-вывода
+     */
+    ExportResultDTO exportPriceHistory(ExportFormat format, OutputStream outputStream) throws IOException;
+
+    /**
+     * Импортирует цены из JSON-массива потоково: записи разбираются по одной
+     * и сохраняются порциями, каждая порция в отдельной транзакции.
+     * Ошибка в порции не отменяет уже сохраненные порции
+     *
+     * @param inputStream поток с JSON-массивом, не закрывается
+     * @return итог импорта с количеством записей и ошибками по порциям
+     * @throws IOException при ошибках чтения потока
      */
-    List<PriceDTO> importPricesFromJson(byte[] data) throws IOException;
+    ImportResultDTO importPricesFromJson(InputStream inputStream) throws IOException;
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.example.service;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.ProductDTO;
 import com.example.entity.Product;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -57,19 +61,23 @@ public interface ProductService {
     List<Product> getProductsByCategoryId(Long categoryId);
 
     /**
-     * Экспортирует товары в JSON-формате
-     * 
-     * @return массив байтов с данными в JSON-формате
+     * Экспортирует товары в JSON-формате потоково: строки читаются из БД курсором
+     * и сразу записываются в выходной поток как элементы JSON-массива
+     *
+     * @param outputStream поток для записи JSON, не закрывается
+     * @return количество выгруженных записей, размер и длительность выгрузки
      * @throws IOException при ошибках ввода-вывода
      */
-    byte[] exportProductsToJson() throws IOException;
+    ExportResultDTO exportProductsToJson(OutputStream outputStream) throws IOException;
 
     /**
-     * Импортирует товары из JSON-данных
-     * 
-     * @param data массив байтов с JSON-данными
-     * @return список импортированных DTO товаров
-     * @throws IOException при ошибках парсинга или ввода-вывода
+     * Импортирует товары из JSON-массива потоково: записи разбираются по одной
+     * и сохраняются порциями, каждая порция в отдельной транзакции.
+     * Ошибка в порции не отменяет уже сохраненные порции
+     *
+     * @param inputStream поток с JSON-массивом, не закрывается
+     * @return итог импорта с количеством записей и ошибками по порциям
+     * @throws IOException при ошибках чтения потока
      */
-    List<ProductDTO> importProductsFromJson(byte[] data) throws IOException;
+    ImportResultDTO importProductsFromJson(InputStream inputStream) throws IOException;
 }
\ No newline at end of file
@@ -1,9 +1,13 @@
 package com.example.service;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.StoreDTO;
 import com.example.entity.Store;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 /**
@@ -49,19 +53,23 @@ public interface StoreService {
     List<Store> getAllStores();
 
     /**
-     * Экспортирует магазины в JSON-формате
-     * 
-     * @return массив байтов с данными в JSON-формате
+     * Экспортирует магазины в JSON-формате потоково: строки читаются из БД курсором
+     * и сразу записываются в выходной поток как элементы JSON-массива
+     *
+     * @param outputStream поток для записи JSON, не закрывается
+     * @return количество выгруженных записей, размер и длительность выгрузки
      * @throws IOException при ошибках ввода-вывода
      */
-    byte[] exportStoresToJson() throws IOException;
+    ExportResultDTO exportStoresToJson(OutputStream outputStream) throws IOException;
 
     /**
-     * Импортирует магазины из JSON-данных
-     * 
-     * @param data массив байтов с JSON-данными
-     * @return список импортированных DTO магазинов
-     * @throws IOException при ошибках парсинга или ввода-вывода
+     * Импортирует магазины из JSON-массива потоково: записи разбираются по одной
+     * и сохраняются порциями, каждая порция в отдельной транзакции.
+     * Ошибка в порции не отменяет уже сохраненные порции
+     *
+     * @param inputStream поток с JSON-массивом, не закрывается
+     * @return итог импорта с количеством записей и ошибками по порциям
+     * @throws IOException при ошибках чтения потока
      */
-    List<StoreDTO> importStoresFromJson(byte[] data) throws IOException;
+    ImportResultDTO importStoresFromJson(InputStream inputStream) throws IOException;
 }
\ No newline at end of file
@@ -1,15 +1,17 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.enums.ExportFormat;
 import com.example.repository.CategoryRepository;
 import com.example.dto.CategoryDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.entity.Category;
 import com.example.exceptions.CategoryNotFoundException;
-import com.example.exceptions.DataExportException;
-import com.example.exceptions.DataImportException;
 import com.example.mapper.CategoryMapper;
 import com.example.service.CategoryService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.utils.ChunkedJsonImporter;
+import com.example.utils.ExportPipeline;
+import com.example.utils.JsonStreamWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,7 +19,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -27,6 +32,7 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final ObjectMapper objectMapper;
+    private final ChunkedJsonImporter chunkedJsonImporter;
 
     @Transactional
     @Override
@@ -87,29 +93,19 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Transactional(readOnly = true)
     @Override
-    public byte[] exportCategoriesToJson() {
-        try {
-            List<CategoryDTO> dtos = categoryMapper.toDtoList(categoryRepository.findAllWithSubCategories());
-            log.info("Экспортировано категорий: {}", dtos.size());
-            return objectMapper.writeValueAsBytes(dtos);
-        } catch (JsonProcessingException e) {
-            log.error("Ошибка сериализации категорий", e);
-            throw new DataExportException("Ошибка экспорта категорий");
+    public ExportResultDTO exportCategoriesToJson(OutputStream outputStream) throws IOException {
+        ExportResultDTO result;
+        try (Stream<CategoryDTO> dtos = categoryRepository.streamAllAsDto()) {
+            result = ExportPipeline.write("categories", ExportFormat.JSON, outputStream,
+                    out -> JsonStreamWriter.writeArray(objectMapper, dtos, out));
         }
+        log.info("Экспортировано категорий: {}", result.getRowCount());
+        return result;
     }
 
-    @Transactional
     @Override
-    public List<CategoryDTO> importCategoriesFromJson(byte[] data) {
-        try {
-            List<CategoryDTO> dtos = objectMapper.readValue(data, new TypeReference<>() {});
-            List<Category> categories = categoryMapper.toEntityList(dtos);
-            categoryRepository.saveAll(categories);
-            log.info("Импортировано категорий: {}", categories.size());
-            return dtos;
-        } catch (IOException e) {
-            log.error("Ошибка десериализации категорий", e);
-            throw new DataImportException("Ошибка импорта категорий");
-        }
+    public ImportResultDTO importCategoriesFromJson(InputStream inputStream) throws IOException {
+        return chunkedJsonImporter.importArray(inputStream, CategoryDTO.class, "categories",
+                chunk -> categoryRepository.saveAll(categoryMapper.toEntityList(chunk)));
     }
 }
\ No newline at end of file
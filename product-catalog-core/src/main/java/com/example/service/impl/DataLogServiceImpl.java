@@ -1,5 +1,6 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
 import com.example.entity.DataLog;
 import com.example.entity.security.User;
 import com.example.repository.DataLogRepository;
@@ -28,4 +29,10 @@ public class DataLogServiceImpl implements DataLogService {
         dataLog.setOperationTime(LocalDateTime.now());
         dataLogRepository.save(dataLog);
     }
+
+    @Transactional
+    @Override
+    public void logExport(ExportResultDTO result, User user) {
+        logOperation("EXPORT", result.getTableName(), result.getRowCount(), user);
+    }
 }
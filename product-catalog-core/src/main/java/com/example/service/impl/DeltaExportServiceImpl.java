@@ -0,0 +1,141 @@
+package com.example.service.impl;
+
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportTable;
+import com.example.exceptions.DeltaCursorExpiredException;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.repository.CategoryRepository;
+import com.example.repository.DeletedRowRepository;
+import com.example.repository.PriceRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.StoreRepository;
+import com.example.service.DeltaExportService;
+import com.example.utils.DeltaCursor;
+import com.example.utils.ExportPipeline;
+import com.example.utils.JsonStreamWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class DeltaExportServiceImpl implements DeltaExportService {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final PriceRepository priceRepository;
+    private final DeletedRowRepository deletedRowRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Запас до текущего времени БД: updated_at равен времени начала транзакции,
+     * поэтому строки транзакций, которые длятся дольше запаса, могут попасть в окно уже после его выгрузки
+     */
+    private final Duration safetyLag;
+    private final Duration tombstoneRetention;
+
+    public DeltaExportServiceImpl(CategoryRepository categoryRepository,
+                                  ProductRepository productRepository,
+                                  StoreRepository storeRepository,
+                                  PriceRepository priceRepository,
+                                  DeletedRowRepository deletedRowRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${data.export.delta.safety-lag-seconds:30}") long safetyLagSeconds,
+                                  @Value("${data.export.delta.tombstone-retention-days:30}") long retentionDays) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.storeRepository = storeRepository;
+        this.priceRepository = priceRepository;
+        this.deletedRowRepository = deletedRowRepository;
+        this.objectMapper = objectMapper;
+        this.safetyLag = Duration.ofSeconds(safetyLagSeconds);
+        this.tombstoneRetention = Duration.ofDays(retentionDays);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public DeltaWindowDTO openWindow(LocalDateTime since, String cursor) {
+        if (since != null && cursor != null) {
+            throw new InvalidRequestParameterException("Укажите либо since, либо cursor");
+        }
+
+        LocalDateTime now = deletedRowRepository.currentTimestamp();
+        LocalDateTime from = cursor != null ? DeltaCursor.decode(cursor) : since;
+        LocalDateTime to = now.minus(safetyLag);
+        if (from != null) {
+            LocalDateTime horizon = now.minus(tombstoneRetention);
+            if (from.isBefore(horizon)) {
+                throw new DeltaCursorExpiredException(from, horizon);
+            }
+            if (to.isBefore(from)) {
+                to = from;
+            }
+        }
+        return new DeltaWindowDTO(from, to, DeltaCursor.encode(to));
+    }
+
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    @Override
+    public ExportResultDTO exportDelta(ExportTable table, DeltaWindowDTO window,
+                                       OutputStream outputStream) throws IOException {
+        ExportResultDTO result;
+        try (Stream<?> changed = streamChanged(table, window);
+             Stream<Long> deletedIds = window.getFrom() == null
+                     ? Stream.empty()
+                     : deletedRowRepository.streamDeletedIds(table.getTableName(), window.getFrom(), window.getTo())) {
+            result = ExportPipeline.write(table.getTableName(), ExportFormat.JSON, outputStream,
+                    out -> JsonStreamWriter.writeDelta(objectMapper, window.getCursor(), changed, deletedIds, out));
+        }
+        log.info("Инкрементальная выгрузка {} с {} по {}: {} изменений",
+                table.getTableName(), window.getFrom(), window.getTo(), result.getRowCount());
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${data.export.delta.tombstone-cleanup-interval-ms:3600000}")
+    @Transactional
+    @Override
+    public void deleteExpiredTombstones() {
+        LocalDateTime horizon = deletedRowRepository.currentTimestamp().minus(tombstoneRetention);
+        int deleted = deletedRowRepository.deleteByDeletedAtBefore(horizon);
+        if (deleted > 0) {
+            log.info("Из журнала удалений удалено {} записей старше {}", deleted, horizon);
+        }
+    }
+
+    /**
+     * Без начала окна выгружаются все строки: первая выгрузка не нуждается в журнале удалений
+     */
+    private Stream<?> streamChanged(ExportTable table, DeltaWindowDTO window) {
+        LocalDateTime from = window.getFrom();
+        LocalDateTime to = window.getTo();
+        return switch (table) {
+            case CATEGORIES -> from == null
+                    ? categoryRepository.streamAllAsDto()
+                    : categoryRepository.streamChangedAsDto(from, to);
+            case PRODUCTS -> from == null
+                    ? productRepository.streamAllAsDto()
+                    : productRepository.streamChangedAsDto(from, to);
+            case STORES -> from == null
+                    ? storeRepository.streamAllAsDto()
+                    : storeRepository.streamChangedAsDto(from, to);
+            case PRICES -> from == null
+                    ? priceRepository.streamAllAsDto()
+                    : priceRepository.streamChangedAsDto(from, to);
+            case PRICE_HISTORY -> throw new InvalidRequestParameterException(
+                    "История цен только дополняется, для нее инкрементальная выгрузка не поддерживается");
+        };
+    }
+}
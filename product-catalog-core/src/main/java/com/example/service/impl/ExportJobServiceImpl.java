@@ -0,0 +1,288 @@
+package com.example.service.impl;
+
+import com.example.dto.ExportJobDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.entity.security.User;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportJobStatus;
+import com.example.enums.ExportTable;
+import com.example.exceptions.ExportJobNotFoundException;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.service.CategoryService;
+import com.example.service.DataLogService;
+import com.example.service.ExportJobService;
+import com.example.service.PriceService;
+import com.example.service.ProductService;
+import com.example.service.StoreService;
+import com.example.utils.CountingOutputStream;
+import com.example.utils.StreamCompression;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    private static final String PART_SUFFIX = ".part";
+
+    private final CategoryService categoryService;
+    private final ProductService productService;
+    private final StoreService storeService;
+    private final PriceService priceService;
+    private final DataLogService dataLogService;
+
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    public ExportJobServiceImpl(CategoryService categoryService,
+                                ProductService productService,
+                                StoreService storeService,
+                                PriceService priceService,
+                                DataLogService dataLogService,
+                                @Value("${data.export.jobs.directory:/tmp/export-jobs}") String directory,
+                                @Value("${data.export.jobs.threads:2}") int threads,
+                                @Value("${data.export.jobs.queue-capacity:10}") int queueCapacity,
+                                @Value("${data.export.jobs.ttl-minutes:60}") long ttlMinutes) {
+        this.categoryService = categoryService;
+        this.productService = productService;
+        this.storeService = storeService;
+        this.priceService = priceService;
+        this.dataLogService = dataLogService;
+        this.directory = Path.of(directory);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "export-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public ExportJobDTO startExport(ExportTable table, ExportFormat format, CompressionType compression, User user) {
+        if (format == ExportFormat.ARROW && table != ExportTable.PRICES && table != ExportTable.PRICE_HISTORY) {
+            throw new InvalidRequestParameterException("Формат ARROW поддерживается только для цен и истории цен");
+        }
+
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), table, format, compression, user);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw e;
+        }
+
+        log.info("Выгрузка {} поставлена в очередь: таблица {}, формат {}, сжатие {}",
+                job.id, table.getTableName(), format, compression);
+        return job.toDto();
+    }
+
+    @Override
+    public ExportJobDTO getJob(String jobId) {
+        return findJob(jobId).toDto();
+    }
+
+    @Override
+    public Path getResultFile(String jobId) {
+        ExportJob job = findJob(jobId);
+        if (job.status != ExportJobStatus.COMPLETED) {
+            throw new ExportJobNotFoundException(jobId);
+        }
+        return job.file;
+    }
+
+    @Scheduled(fixedDelayString = "${data.export.jobs.cleanup-interval-ms:300000}")
+    @Override
+    public void deleteExpiredJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(ttl);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(expiredBefore)) {
+                return false;
+            }
+            deleteQuietly(job.file);
+            log.info("Выгрузка {} удалена по истечении срока хранения", job.id);
+            return true;
+        });
+        // Готовые файлы выгрузок предыдущего запуска, которых нет в памяти
+        deleteFiles(file -> !isPartFile(file) && lastModified(file).isBefore(Instant.now().minus(ttl)));
+    }
+
+    /**
+     * Состояние выгрузок хранится только в памяти, поэтому после перезапуска файлы в каталоге
+     * не принадлежат ни одной выгрузке. Незавершенные .part удаляются сразу, готовые файлы -
+     * по истечении срока хранения
+     */
+    @PostConstruct
+    public void deleteOrphanedFiles() {
+        Instant expiredBefore = Instant.now().minus(ttl);
+        deleteFiles(file -> isPartFile(file) || lastModified(file).isBefore(expiredBefore));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        log.info("Пул фоновых выгрузок остановлен");
+    }
+
+    private void run(ExportJob job) {
+        job.status = ExportJobStatus.RUNNING;
+        Path partFile = directory.resolve(job.id + PART_SUFFIX);
+        try {
+            Files.createDirectories(directory);
+            ExportResultDTO result;
+            job.fileStream = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partFile), FILE_BUFFER_SIZE));
+            try (OutputStream outputStream = StreamCompression.compress(job.fileStream, job.compression)) {
+                result = export(job.table, job.format, outputStream);
+            }
+
+            Path file = directory.resolve(job.id + "-" + job.fileName);
+            Files.move(partFile, file, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.rowCount = result.getRowCount();
+            job.finishedAt = LocalDateTime.now();
+            job.status = ExportJobStatus.COMPLETED;
+
+            dataLogService.logExport(result, job.user);
+            log.info("Выгрузка {} завершена: {} записей, {} байт за {} мс",
+                    job.id, result.getRowCount(), job.bytesWritten(), result.getDurationMs());
+        } catch (Exception e) {
+            deleteQuietly(partFile);
+            job.error = e.getMessage();
+            job.finishedAt = LocalDateTime.now();
+            job.status = ExportJobStatus.FAILED;
+            log.error("Ошибка выгрузки {}", job.id, e);
+        }
+    }
+
+    private ExportResultDTO export(ExportTable table, ExportFormat format, OutputStream outputStream)
+            throws IOException {
+        return switch (table) {
+            case CATEGORIES -> categoryService.exportCategoriesToJson(outputStream);
+            case PRODUCTS -> productService.exportProductsToJson(outputStream);
+            case STORES -> storeService.exportStoresToJson(outputStream);
+            case PRICES -> priceService.exportPrices(format, outputStream);
+            case PRICE_HISTORY -> priceService.exportPriceHistory(format, outputStream);
+        };
+    }
+
+    private ExportJob findJob(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ExportJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    private void deleteFiles(Predicate<Path> filter) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .forEach(file -> {
+                        deleteQuietly(file);
+                        log.info("Удален файл выгрузки, оставшийся от предыдущего запуска: {}", file);
+                    });
+        } catch (IOException e) {
+            log.warn("Не удалось очистить каталог выгрузок {}", directory, e);
+        }
+    }
+
+    private static boolean isPartFile(Path file) {
+        return file.getFileName().toString().endsWith(PART_SUFFIX);
+    }
+
+    private static Instant lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant();
+        } catch (IOException e) {
+            return Instant.MAX;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл выгрузки {}", file, e);
+        }
+    }
+
+    /**
+     * Состояние выгрузки. Поля изменяет только поток выгрузки, запросы состояния читают их без блокировок
+     */
+    private static final class ExportJob {
+
+        private final String id;
+        private final ExportTable table;
+        private final ExportFormat format;
+        private final CompressionType compression;
+        private final User user;
+        private final String fileName;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+
+        private volatile CountingOutputStream fileStream;
+        private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+        private volatile Path file;
+        private volatile Long rowCount;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+
+        private ExportJob(String id, ExportTable table, ExportFormat format, CompressionType compression, User user) {
+            this.id = id;
+            this.table = table;
+            this.format = format;
+            this.compression = compression;
+            this.user = user;
+            this.fileName = table.getTableName() + "." + format.getExtension() + compression.getExtension();
+        }
+
+        private ExportJobDTO toDto() {
+            return new ExportJobDTO(id, table, format, compression, status, fileName, rowCount,
+                    bytesWritten(), error, createdAt, finishedAt);
+        }
+
+        private long bytesWritten() {
+            CountingOutputStream stream = fileStream;
+            return stream == null ? 0L : stream.getCount();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.service.impl;
+
+import com.example.exceptions.LoginOverloadedException;
+import com.example.service.security.LoginService;
+import com.example.service.security.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class LoginServiceImpl implements LoginService {
+
+    private final AuthenticationManager authenticationManager;
+    private final UserService userService;
+    private final Counter rejectedLogins;
+    private final ThreadPoolExecutor executor;
+
+    public LoginServiceImpl(AuthenticationManager authenticationManager,
+                            UserService userService,
+                            MeterRegistry meterRegistry,
+                            @Value("${security.password.hashing.threads:4}") int threads,
+                            @Value("${security.password.hashing.queue-capacity:64}") int queueCapacity) {
+        this.authenticationManager = authenticationManager;
+        this.userService = userService;
+        this.rejectedLogins = meterRegistry.counter("auth.login.rejected");
+
+        // BCrypt нагружает процессор: число потоков ограничивает одновременные проверки паролей,
+        // а при заполненной очереди вход сразу отклоняется, не дожидаясь свободного потока
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public CompletableFuture<String> login(String username, String password) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                Authentication authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(username, password));
+                return userService.generateToken((UserDetails) authentication.getPrincipal());
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedLogins.increment();
+            throw new LoginOverloadedException();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        log.info("Пул проверки паролей остановлен");
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.service.impl;
+
+import com.example.entity.PriceHistory;
+import com.example.event.PriceHistoryAppendedEvent;
+import com.example.repository.PriceHistoryRepository;
+import com.example.service.PriceHistoryWriter;
+import com.example.utils.AppendOnlySpool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class PriceHistoryWriterImpl implements PriceHistoryWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO price_history (product_id, store_id, price, recorded_at) VALUES (?, ?, ?, ?)";
+    // Повторная вставка записи, которая могла уже попасть в БД (воспроизведение spool, повтор пакета):
+    // запись с той же парой товар-магазин и временем не добавляется и не учитывается в дневных агрегатах дважды
+    private static final String INSERT_IF_ABSENT_SQL =
+            "INSERT INTO price_history (product_id, store_id, price, recorded_at) SELECT ?, ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM price_history " +
+            "WHERE product_id = ? AND store_id = ? AND recorded_at = ?)";
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final PriceHistoryRepository priceHistoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final boolean writeBehindEnabled;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long offerTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final Path spoolDirectory;
+    private final long spoolSegmentBytes;
+    private final boolean spoolForce;
+
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Semaphore capacity;
+    private final Object enqueueLock = new Object();
+
+    private AppendOnlySpool spool;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public PriceHistoryWriterImpl(PriceHistoryRepository priceHistoryRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${price.history.write-behind.enabled:false}") boolean writeBehindEnabled,
+                                  @Value("${price.history.write-behind.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${price.history.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${price.history.write-behind.linger-ms:200}") long lingerMs,
+                                  @Value("${price.history.write-behind.offer-timeout-ms:1000}") long offerTimeoutMs,
+                                  @Value("${price.history.write-behind.shutdown-timeout-ms:30000}") long shutdownTimeoutMs,
+                                  @Value("${price.history.write-behind.spool-dir:/tmp/price-history-spool}")
+                                  String spoolDirectory,
+                                  @Value("${price.history.write-behind.spool-segment-bytes:16777216}")
+                                  long spoolSegmentBytes,
+                                  @Value("${price.history.write-behind.spool-force:true}") boolean spoolForce) {
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        // Синхронная запись выполняется и в afterCommit, где завершенная транзакция еще привязана к потоку
+        this.transactionTemplate = new TransactionTemplate(
+                Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.writeBehindEnabled = writeBehindEnabled;
+        this.queueCapacity = queueCapacity;
+        this.capacity = new Semaphore(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.spoolDirectory = Path.of(spoolDirectory);
+        this.spoolSegmentBytes = spoolSegmentBytes;
+        this.spoolForce = spoolForce;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!writeBehindEnabled) {
+            return;
+        }
+
+        spool = new AppendOnlySpool(spoolDirectory, spoolSegmentBytes, spoolForce);
+        long replayed = spool.replay(batchSize, lines -> replayBatch(parse(lines)));
+        if (replayed > 0) {
+            log.info("Восстановлено {} записей истории цен из spool", replayed);
+        }
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "price-history-writer");
+        writerThread.start();
+        log.info("Запущена фоновая запись истории цен: пакет={}, задержка={} мс", batchSize, lingerMs);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writerThread == null) {
+            return;
+        }
+
+        running = false;
+        writerThread.join(shutdownTimeoutMs);
+        if (writerThread.isAlive()) {
+            log.warn("Очередь истории цен не опустошена за {} мс, {} записей останутся в spool",
+                    shutdownTimeoutMs, queue.size());
+            writerThread.interrupt();
+            writerThread.join();
+        }
+        spool.close();
+        log.info("Фоновая запись истории цен остановлена");
+    }
+
+    @Override
+    public void append(PriceHistory priceHistory) {
+        appendAll(List.of(priceHistory));
+    }
+
+    @Override
+    public void appendAll(List<PriceHistory> priceHistories) {
+        List<HistoryRecord> records = priceHistories.stream()
+                .map(HistoryRecord::of)
+                .toList();
+
+        if (!writeBehindEnabled) {
+            priceHistoryRepository.saveAll(priceHistories);
+            publishAppended(records);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(records);
+                }
+            });
+        } else {
+            enqueue(records);
+        }
+    }
+
+    /**
+     * Ставит пакет в очередь целиком: место резервируется одним ожиданием, а записи попадают в spool
+     * одной операцией со сбросом на диск. Если места нет, пакет сохраняется синхронно одним запросом
+     */
+    private void enqueue(List<HistoryRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (!running || !acquireCapacity(records.size())) {
+            log.warn("Очередь истории цен недоступна или переполнена, {} записей сохраняются синхронно",
+                    records.size());
+            insertDirectly(records);
+            return;
+        }
+        try {
+            synchronized (enqueueLock) {
+                long seq = spool.appendAll(records.stream().map(HistoryRecord::format).toList())
+                        - records.size() + 1;
+                for (HistoryRecord record : records) {
+                    queue.add(new PendingRecord(record, seq++));
+                }
+            }
+        } catch (IOException e) {
+            capacity.release(records.size());
+            log.error("Ошибка записи в spool истории цен, {} записей сохраняются синхронно", records.size(), e);
+            insertDirectly(records);
+        }
+    }
+
+    private boolean acquireCapacity(int permits) {
+        if (permits > queueCapacity) {
+            return false;
+        }
+        try {
+            return capacity.tryAcquire(permits, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runWriter() {
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingRecord first = queue.poll(lingerMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingRecord next = running && remaining > 0
+                            ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                            : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                if (!flush(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Фоновая запись истории цен прервана, несохраненные записи остаются в spool");
+        }
+    }
+
+    /**
+     * Записывает пакет с повторами при ошибках БД и подтверждает его в spool
+     *
+     * @return false, если пакет не записан из-за остановки приложения
+     */
+    private boolean flush(List<PendingRecord> batch) throws InterruptedException {
+        List<HistoryRecord> records = batch.stream().map(PendingRecord::record).toList();
+        long backoffMs = 100;
+        boolean retry = false;
+        while (true) {
+            try {
+                // После ошибки неизвестно, зафиксирована ли предыдущая попытка
+                insertBatch(records, retry);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Пакет истории цен нарушает ограничения целостности, запись по одной", e);
+                records.forEach(this::insertDirectly);
+                break;
+            } catch (DataAccessException e) {
+                if (!running) {
+                    log.error("Ошибка записи истории цен при остановке, {} записей останутся в spool",
+                            batch.size() + queue.size(), e);
+                    return false;
+                }
+                log.warn("Ошибка записи пакета истории цен, повтор через {} мс", backoffMs, e);
+                retry = true;
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+
+        publishAppended(records);
+        try {
+            spool.commit(batch.get(batch.size() - 1).seq());
+        } catch (IOException e) {
+            log.error("Ошибка подтверждения записей в spool истории цен", e);
+        }
+        capacity.release(batch.size());
+        log.debug("Записан пакет истории цен: {} записей", batch.size());
+        return true;
+    }
+
+    /**
+     * Воспроизводит пакет из spool. Записи пакета могли быть сохранены до остановки,
+     * поэтому уже существующие записи пропускаются
+     */
+    private void replayBatch(List<HistoryRecord> records) {
+        try {
+            insertBatch(records, true);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пакет истории цен из spool нарушает ограничения целостности, запись по одной", e);
+            records.forEach(this::insertDirectly);
+        }
+    }
+
+    /**
+     * Сохраняет записи одним batch в отдельной транзакции.
+     * С reWriteBatchedInserts драйвер отправляет обычный пакет многострочным INSERT
+     *
+     * @param ifAbsent пропускать записи, уже сохраненные в БД
+     */
+    private void insertBatch(List<HistoryRecord> records, boolean ifAbsent) {
+        if (records.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                ifAbsent ? INSERT_IF_ABSENT_SQL : INSERT_SQL, records, records.size(), (ps, record) -> {
+                    Timestamp recordedAt = Timestamp.valueOf(record.recordedAt());
+                    ps.setLong(1, record.productId());
+                    ps.setLong(2, record.storeId());
+                    ps.setInt(3, record.price());
+                    ps.setTimestamp(4, recordedAt);
+                    if (ifAbsent) {
+                        ps.setLong(5, record.productId());
+                        ps.setLong(6, record.storeId());
+                        ps.setTimestamp(7, recordedAt);
+                    }
+                }));
+    }
+
+    private void insertDirectly(List<HistoryRecord> records) {
+        try {
+            insertBatch(records, false);
+            publishAppended(records);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Пакет истории цен нарушает ограничения целостности, запись по одной", e);
+            records.forEach(this::insertDirectly);
+        }
+    }
+
+    private void insertDirectly(HistoryRecord record) {
+        try {
+            Timestamp recordedAt = Timestamp.valueOf(record.recordedAt());
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_IF_ABSENT_SQL,
+                    record.productId(), record.storeId(), record.price(), recordedAt,
+                    record.productId(), record.storeId(), recordedAt));
+            publishAppended(List.of(record));
+        } catch (DataIntegrityViolationException e) {
+            log.error("Запись истории цен отклонена БД: {}", record.format(), e);
+        }
+    }
+
+    /**
+     * Публикует событие добавления истории для каждой затронутой пары товар-магазин.
+     * В транзакции слушатели получают событие после ее фиксации
+     */
+    private void publishAppended(List<HistoryRecord> records) {
+        records.stream()
+                .map(record -> new PriceHistoryAppendedEvent(record.productId(), record.storeId()))
+                .distinct()
+                .forEach(eventPublisher::publishEvent);
+    }
+
+    private static List<HistoryRecord> parse(List<String> lines) {
+        List<HistoryRecord> records = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            try {
+                records.add(HistoryRecord.parse(line));
+            } catch (RuntimeException e) {
+                log.warn("Пропущена поврежденная запись spool истории цен: {}", line);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Запись истории цен в очереди и в spool
+     */
+    private record HistoryRecord(Long productId, Long storeId, Integer price, LocalDateTime recordedAt) {
+
+        static HistoryRecord of(PriceHistory priceHistory) {
+            return new HistoryRecord(priceHistory.getProduct().getProductId(),
+                    priceHistory.getStore().getStoreId(),
+                    priceHistory.getPrice(),
+                    priceHistory.getRecordedAt() != null ? priceHistory.getRecordedAt() : LocalDateTime.now());
+        }
+
+        static HistoryRecord parse(String line) {
+            String[] parts = line.split(";");
+            return new HistoryRecord(Long.valueOf(parts[0]), Long.valueOf(parts[1]),
+                    Integer.valueOf(parts[2]), LocalDateTime.parse(parts[3]));
+        }
+
+        String format() {
+            return productId + ";" + storeId + ";" + price + ";" + recordedAt;
+        }
+    }
+
+    private record PendingRecord(HistoryRecord record, long seq) {
+    }
+}
@@ -1,41 +1,96 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.dto.PriceBatchResultDTO;
+import com.example.dto.PriceCreateDTO;
+import com.example.entity.Product;
+import com.example.entity.Store;
+import com.example.enums.BatchItemStatus;
+import com.example.enums.ChartFormat;
+import com.example.enums.ExportFormat;
+import com.example.event.PriceHistoryAppendedEvent;
+import com.example.enums.HistoryInterval;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.repository.ProductRepository;
+import com.example.repository.StoreRepository;
+import com.example.repository.projection.PriceHistoryBucket;
+import com.example.repository.projection.PriceUpsertResult;
+import com.example.utils.ArrowExportWriter;
+import com.example.utils.ChartCache;
+import com.example.utils.ChartCache.ChartKey;
 import com.example.utils.ChartGenerator;
+import com.example.utils.ChartRenderPool;
 import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryBucketDTO;
+import com.example.dto.PriceHistoryDTO;
 import com.example.entity.Price;
 import com.example.entity.PriceHistory;
-import com.example.exceptions.DataExportException;
-import com.example.exceptions.DataImportException;
 import com.example.exceptions.PriceHistoryNotFoundException;
 import com.example.exceptions.PriceNotFoundException;
 import com.example.mapper.PriceMapper;
 import com.example.repository.PriceHistoryRepository;
 import com.example.repository.PriceRepository;
+import com.example.service.PriceHistoryWriter;
 import com.example.service.PriceService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.utils.ChunkedJsonImporter;
+import com.example.utils.ExportPipeline;
+import com.example.utils.JsonStreamWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @AllArgsConstructor
 public class PriceServiceImpl implements PriceService {
 
+    private static final String SUPPRESSED_WRITES_METRIC = "prices.writes.suppressed";
+    /**
+     * Минимальная длина периода в днях, начиная с которой агрегаты от суток и больше
+     * читаются из дневной свертки price_history_daily вместо исходной истории
+     */
+    private static final long ROLLUP_MIN_RANGE_DAYS = 31;
+    private static final int MAX_COMPARISON_STORES = 20;
+
     private final PriceRepository priceRepository;
     private final PriceHistoryRepository priceHistoryRepository;
+    private final PriceHistoryWriter priceHistoryWriter;
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
     private final ChartGenerator chartGenerator;
+    private final ChartCache chartCache;
+    private final ChartRenderPool chartRenderPool;
     private final PriceMapper priceMapper;
     private final ObjectMapper objectMapper;
+    private final ChunkedJsonImporter chunkedJsonImporter;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
@@ -52,11 +107,88 @@ public class PriceServiceImpl implements PriceService {
         priceHistory.setStore(createdPrice.getStore());
         priceHistory.setPrice(createdPrice.getPrice());
         priceHistory.setRecordedAt(LocalDateTime.now());
-        priceHistoryRepository.save(priceHistory);
+        priceHistoryWriter.append(priceHistory);
 
         return createdPrice;
     }
 
+    @Transactional
+    @Override
+    public List<PriceBatchResultDTO> createPrices(List<PriceCreateDTO> createDTOs) {
+        Set<Long> productIds = new HashSet<>();
+        Set<Long> storeIds = new HashSet<>();
+        for (PriceCreateDTO dto : createDTOs) {
+            if (dto.getProductId() != null) {
+                productIds.add(dto.getProductId());
+            }
+            if (dto.getStoreId() != null) {
+                storeIds.add(dto.getStoreId());
+            }
+        }
+
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of() :
+                productRepository.findAllById(productIds).stream()
+                        .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        Map<Long, Store> stores = storeIds.isEmpty() ? Map.of() :
+                storeRepository.findAllById(storeIds).stream()
+                        .collect(Collectors.toMap(Store::getStoreId, Function.identity()));
+
+        Set<PriceKey> takenKeys = new HashSet<>();
+        if (!products.isEmpty() && !stores.isEmpty()) {
+            for (Price existing : priceRepository.findByProductIdsAndStoreIds(products.keySet(), stores.keySet())) {
+                takenKeys.add(new PriceKey(existing.getProduct().getProductId(), existing.getStore().getStoreId()));
+            }
+        }
+
+        List<PriceBatchResultDTO> results = new ArrayList<>(createDTOs.size());
+        List<Price> prices = new ArrayList<>();
+        List<PriceBatchResultDTO> createdResults = new ArrayList<>();
+        for (int i = 0; i < createDTOs.size(); i++) {
+            PriceCreateDTO dto = createDTOs.get(i);
+            PriceBatchResultDTO result = new PriceBatchResultDTO(i, dto.getProductId(), dto.getStoreId(),
+                    null, BatchItemStatus.REJECTED, null);
+            results.add(result);
+
+            if (dto.getProductId() == null || dto.getStoreId() == null || dto.getPrice() == null) {
+                result.setMessage("Не указаны продукт, магазин или цена");
+                continue;
+            }
+            Product product = products.get(dto.getProductId());
+            if (product == null) {
+                result.setMessage("Продукт с ID " + dto.getProductId() + " не найден");
+                continue;
+            }
+            Store store = stores.get(dto.getStoreId());
+            if (store == null) {
+                result.setMessage("Магазин с ID " + dto.getStoreId() + " не найден");
+                continue;
+            }
+            if (!takenKeys.add(new PriceKey(dto.getProductId(), dto.getStoreId()))) {
+                result.setMessage("Цена для продукта ID=" + dto.getProductId()
+                        + " в магазине ID=" + dto.getStoreId() + " уже существует");
+                continue;
+            }
+
+            prices.add(new Price(product, store, dto.getPrice()));
+            createdResults.add(result);
+        }
+
+        priceRepository.saveAll(prices);
+        priceHistoryWriter.appendAll(prices.stream()
+                .map(price -> new PriceHistory(price.getProduct(), price.getStore(), price.getPrice()))
+                .toList());
+
+        for (int i = 0; i < prices.size(); i++) {
+            PriceBatchResultDTO result = createdResults.get(i);
+            result.setPriceId(prices.get(i).getPriceId());
+            result.setStatus(BatchItemStatus.CREATED);
+        }
+
+        log.info("Пакетное создание цен: получено {}, создано {}, отклонено {}",
+                createDTOs.size(), prices.size(), createDTOs.size() - prices.size());
+        return results;
+    }
+
     @Transactional(readOnly = true)
     @Override
     public Price getPriceById(Long id) {
@@ -70,17 +202,43 @@ public class PriceServiceImpl implements PriceService {
         Price currentPrice = priceRepository.findById(price.getPriceId())
                 .orElseThrow(() -> new PriceNotFoundException(price.getPriceId()));
 
+        if (isSamePrice(currentPrice, price)) {
+            meterRegistry.counter(SUPPRESSED_WRITES_METRIC, "path", "update").increment();
+            log.debug("Цена ID={} не изменилась, запись пропущена", price.getPriceId());
+            return;
+        }
+
         PriceHistory priceHistory = new PriceHistory();
         priceHistory.setProduct(currentPrice.getProduct());
         priceHistory.setStore(currentPrice.getStore());
         priceHistory.setPrice(currentPrice.getPrice());
         priceHistory.setRecordedAt(LocalDateTime.now());
-        priceHistoryRepository.save(priceHistory);
+        priceHistoryWriter.append(priceHistory);
 
         priceRepository.save(price);
         log.info("Обновлена цена ID={}", price.getPriceId());
     }
 
+    @Transactional
+    @Override
+    public PriceDTO upsertPrice(Long productId, Long storeId, Integer price) {
+        if (productId == null || storeId == null || price == null) {
+            throw new InvalidRequestParameterException("Продукт, магазин и цена не могут быть null");
+        }
+
+        PriceUpsertResult result = priceRepository.upsertPrice(productId, storeId, price);
+        if (Boolean.FALSE.equals(result.getChanged())) {
+            meterRegistry.counter(SUPPRESSED_WRITES_METRIC, "path", "upsert").increment();
+            log.debug("Цена ID={} не изменилась, запись пропущена", result.getPriceId());
+            return toDto(result);
+        }
+        log.info("Upsert цены: ID={}, продукт ID={}, магазин ID={}, значение={}",
+                result.getPriceId(), productId, storeId, price);
+        eventPublisher.publishEvent(new PriceHistoryAppendedEvent(productId, storeId));
+
+        return toDto(result);
+    }
+
     @Transactional
     @Override
     public void deletePrice(Long id) {
@@ -93,8 +251,8 @@ public class PriceServiceImpl implements PriceService {
 
     @Transactional(readOnly = true)
     @Override
-    public List<Price> getAllPrices() {
-        List<Price> prices = priceRepository.findAllWithProductAndStore();
+    public List<PriceDTO> getAllPrices() {
+        List<PriceDTO> prices = priceRepository.findAllAsDto();
         log.debug("Получено {} цен", prices.size());
         return prices;
     }
@@ -102,23 +260,23 @@ public class PriceServiceImpl implements PriceService {
     @Transactional(readOnly = true)
     @Override
     public List<PriceDTO> getPricesByProductId(Long productId) {
-        List<Price> prices = priceRepository.findByProduct_ProductId(productId);
+        List<PriceDTO> prices = priceRepository.findDtosByProductId(productId);
         if (prices.isEmpty()) {
             log.debug("Цены для продукта ID={} не найдены", productId);
         }
-        return priceMapper.toDtoList(prices);
+        return prices;
     }
 
     @Transactional(readOnly = true)
     @Override
-    public List<PriceHistory> getPriceHistoryByProductIdAndDataRange(Long productId,
-                                                                     Long storeId,
-                                                                     LocalDate startDate,
-                                                                     LocalDate endDate) {
+    public List<PriceHistoryDTO> getPriceHistoryByProductIdAndDataRange(Long productId,
+                                                                        Long storeId,
+                                                                        LocalDate startDate,
+                                                                        LocalDate endDate) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-        List<PriceHistory> history = priceHistoryRepository.findByProductIdAndStoreIdAndDateRange(
+        List<PriceHistoryDTO> history = priceHistoryRepository.findByProductIdAndStoreIdAndDateRange(
                 productId, storeId, startDateTime, endDateTime);
 
         log.info("История цен: продукт ID={}, магазин ID={}, найдено {} записей",
@@ -128,55 +286,196 @@ public class PriceServiceImpl implements PriceService {
 
     @Transactional(readOnly = true)
     @Override
-    public byte[] generatePriceHistoryChart(Long productId, Long storeId,
-                                            LocalDate startDate, LocalDate endDate) throws IOException {
-        List<PriceHistory> priceHistory = getPriceHistoryByProductIdAndDataRange(
+    public long writePriceHistoryAsNdjson(Long productId,
+                                          Long storeId,
+                                          LocalDate startDate,
+                                          LocalDate endDate,
+                                          OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (Stream<PriceHistoryDTO> history = priceHistoryRepository.streamByProductIdAndStoreIdAndDateRange(
+                productId, storeId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            for (PriceHistoryDTO dto : (Iterable<PriceHistoryDTO>) history::iterator) {
+                generator.writeObject(dto);
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+
+        log.info("Потоковая выгрузка истории цен: продукт ID={}, магазин ID={}, записано {} записей",
+                productId, storeId, count);
+        return count;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<PriceHistoryBucketDTO> getPriceHistoryBuckets(Long productId,
+                                                              Long storeId,
+                                                              LocalDate startDate,
+                                                              LocalDate endDate,
+                                                              HistoryInterval interval) {
+        String unit = interval.name().toLowerCase(Locale.ROOT);
+        boolean useRollup = interval != HistoryInterval.HOUR
+                && ChronoUnit.DAYS.between(startDate, endDate) >= ROLLUP_MIN_RANGE_DAYS;
+
+        List<PriceHistoryBucket> rows = useRollup
+                ? priceHistoryRepository.findDailyRollupBucketsByProductIdAndStoreIdAndDateRange(
+                        productId, storeId, unit, startDate, endDate)
+                : priceHistoryRepository.findBucketsByProductIdAndStoreIdAndDateRange(
+                        productId, storeId, unit, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        List<PriceHistoryBucketDTO> buckets = rows.stream()
+                .map(PriceServiceImpl::toDto)
+                .toList();
+
+        log.info("Агрегированная история цен: продукт ID={}, магазин ID={}, интервал={}, источник={}, найдено {} интервалов",
+                productId, storeId, interval, useRollup ? "price_history_daily" : "price_history", buckets.size());
+        return buckets;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CompletableFuture<byte[]> generatePriceHistoryChart(Long productId, Long storeId,
+                                                               LocalDate startDate, LocalDate endDate,
+                                                               int width, int height, ChartFormat format) {
+        validateChartSize(width, height);
+        ChartKey key = new ChartKey(productId, storeId, startDate, endDate, width, height, format);
+        byte[] cachedChart = chartCache.get(key);
+        if (cachedChart != null) {
+            log.debug("График истории цен взят из кэша: продукт ID={}, магазин ID={}", productId, storeId);
+            return CompletableFuture.completedFuture(cachedChart);
+        }
+
+        long cacheVersion = chartCache.version(productId, storeId);
+        List<PriceHistoryDTO> priceHistory = getPriceHistoryByProductIdAndDataRange(
                 productId, storeId, startDate, endDate);
 
         if (priceHistory.isEmpty()) {
             throw new PriceHistoryNotFoundException(productId, storeId);
         }
 
-        return chartGenerator.generatePriceHistoryChart(priceHistory);
+        return chartRenderPool.submit(() -> chartGenerator.generatePriceHistoryChart(priceHistory, width, height, format))
+                .thenApply(chart -> {
+                    chartCache.put(key, chart, cacheVersion);
+                    return chart;
+                });
     }
 
     @Transactional(readOnly = true)
     @Override
-    public byte[] exportPricesToJson() {
-        for (int i = 0; i < 4; i++) {
-            System.out.println("Hello world;");
-            System.out.println("Hello world;");
-            System.out.println("Hello world;");
-            System.out.println("Hello world;");
-            System.out.println("Hello world;");
-            System.out.println("Hello world;");
-
+    public CompletableFuture<byte[]> generatePriceComparisonChart(Long productId, List<Long> storeIds,
+                                                                  LocalDate startDate, LocalDate endDate,
+                                                                  int width, int height, ChartFormat format) {
+        validateChartSize(width, height);
+        if (storeIds == null || storeIds.isEmpty()) {
+            throw new InvalidRequestParameterException("Список магазинов для сравнения не может быть пустым");
+        }
+        List<Long> distinctStoreIds = storeIds.stream().distinct().toList();
+        if (distinctStoreIds.size() > MAX_COMPARISON_STORES) {
+            throw new InvalidRequestParameterException(String.format(
+                    "Сравнение возможно не более чем по %d магазинам", MAX_COMPARISON_STORES));
+        }
 
+        List<PriceHistoryDTO> history = priceHistoryRepository.findByProductIdAndStoreIdsAndDateRange(
+                productId, distinctStoreIds, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+        if (history.isEmpty()) {
+            throw new PriceHistoryNotFoundException(productId, distinctStoreIds);
         }
 
+        Map<Long, String> storeNames = storeRepository.findAllById(distinctStoreIds).stream()
+                .collect(Collectors.toMap(Store::getStoreId, Store::getStoreName));
+        Map<String, List<PriceHistoryDTO>> historyByStore = history.stream()
+                .collect(Collectors.groupingBy(
+                        row -> seriesName(row.getStoreId(), storeNames),
+                        LinkedHashMap::new,
+                        Collectors.toList()));
+
+        log.info("Сравнение истории цен: продукт ID={}, магазинов с историей {} из {}, найдено {} записей",
+                productId, historyByStore.size(), distinctStoreIds.size(), history.size());
+        return chartRenderPool.submit(() ->
+                chartGenerator.generateComparisonChart(historyByStore, width, height, format));
+    }
 
-        try {
-            List<PriceDTO> priceDTOs = priceMapper.toDtoList(priceRepository.findAllWithProductAndStore());
-            log.info("Экспортировано {} цен", priceDTOs.size());
-            return objectMapper.writeValueAsBytes(priceDTOs);
-        } catch (JsonProcessingException e) {
-            log.error("Ошибка сериализации категорий", e);
-            throw new DataExportException("Ошибка экспорта категорий");
+    @Transactional(readOnly = true)
+    @Override
+    public ExportResultDTO exportPrices(ExportFormat format, OutputStream outputStream) throws IOException {
+        ExportResultDTO result;
+        try (Stream<PriceDTO> priceDTOs = priceRepository.streamAllAsDto()) {
+            result = ExportPipeline.write("prices", format, outputStream, out -> format == ExportFormat.ARROW
+                    ? ArrowExportWriter.writePrices(priceDTOs, out)
+                    : JsonStreamWriter.writeArray(objectMapper, priceDTOs, out));
         }
+        log.info("Экспортировано {} цен в формате {}", result.getRowCount(), format);
+        return result;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public ExportResultDTO exportPriceHistory(ExportFormat format, OutputStream outputStream) throws IOException {
+        ExportResultDTO result;
+        try (Stream<PriceHistoryDTO> history = priceHistoryRepository.streamAllAsDto()) {
+            result = ExportPipeline.write("price_history", format, outputStream, out -> format == ExportFormat.ARROW
+                    ? ArrowExportWriter.writePriceHistory(history, out)
+                    : JsonStreamWriter.writeArray(objectMapper, history, out));
+        }
+        log.info("Экспортировано {} записей истории цен в формате {}", result.getRowCount(), format);
+        return result;
     }
 
-    @Transactional
     @Override
-    public List<PriceDTO> importPricesFromJson(byte[] data) {
-        try {
-            List<PriceDTO> priceDTOs = objectMapper.readValue(data, new TypeReference<>() {});
-            List<Price> prices = priceMapper.toEntityList(priceDTOs);
-            priceRepository.saveAll(prices);
-            log.info("Импортировано {} цен", prices.size());
-            return priceDTOs;
-        } catch (IOException e) {
-            log.error("Ошибка десериализации категорий", e);
-            throw new DataImportException("Ошибка импорта категорий");
+    public ImportResultDTO importPricesFromJson(InputStream inputStream) throws IOException {
+        return chunkedJsonImporter.importArray(inputStream, PriceDTO.class, "prices",
+                chunk -> priceRepository.saveAll(priceMapper.toEntityList(chunk)));
+    }
+
+    private static PriceDTO toDto(PriceUpsertResult result) {
+        return new PriceDTO(result.getPriceId(), result.getProductId(), result.getStoreId(),
+                result.getPrice(), result.getRecordedAt());
+    }
+
+    private static PriceHistoryBucketDTO toDto(PriceHistoryBucket bucket) {
+        return new PriceHistoryBucketDTO(bucket.getBucketStart(), bucket.getMinPrice(), bucket.getMaxPrice(),
+                bucket.getFirstPrice(), bucket.getLastPrice(), bucket.getAvgPrice(), bucket.getCount());
+    }
+
+    /**
+     * Сравнивает значение цены, товар и магазин текущей и новой версии цены
+     */
+    private static boolean isSamePrice(Price current, Price updated) {
+        return Objects.equals(current.getPrice(), updated.getPrice())
+                && Objects.equals(productIdOf(current), productIdOf(updated))
+                && Objects.equals(storeIdOf(current), storeIdOf(updated));
+    }
+
+    private static void validateChartSize(int width, int height) {
+        if (width < ChartGenerator.MIN_SIZE || width > ChartGenerator.MAX_SIZE
+                || height < ChartGenerator.MIN_SIZE || height > ChartGenerator.MAX_SIZE) {
+            throw new InvalidRequestParameterException(String.format(
+                    "Размер графика %dx%d вне допустимых границ %d..%d пикселей",
+                    width, height, ChartGenerator.MIN_SIZE, ChartGenerator.MAX_SIZE));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Название ряда графика сравнения. ID магазина делает название уникальным при совпадении имен магазинов
+     */
+    private static String seriesName(Long storeId, Map<Long, String> storeNames) {
+        return String.format("%s (ID=%d)", storeNames.getOrDefault(storeId, "Магазин"), storeId);
+    }
+
+    private static Long productIdOf(Price price) {
+        return price.getProduct() != null ? price.getProduct().getProductId() : null;
+    }
+
+    private static Long storeIdOf(Price price) {
+        return price.getStore() != null ? price.getStore().getStoreId() : null;
+    }
+
+    /**
+     * Ключ цены по уникальной паре (product_id, store_id)
+     */
+    private record PriceKey(Long productId, Long storeId) {
+    }
+}
@@ -1,15 +1,17 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.ProductDTO;
 import com.example.entity.Product;
-import com.example.exceptions.DataExportException;
-import com.example.exceptions.DataImportException;
+import com.example.enums.ExportFormat;
 import com.example.exceptions.ProductNotFoundException;
 import com.example.mapper.ProductMapper;
 import com.example.repository.ProductRepository;
 import com.example.service.ProductService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.utils.ChunkedJsonImporter;
+import com.example.utils.ExportPipeline;
+import com.example.utils.JsonStreamWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,8 +19,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -28,6 +33,7 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
     private final ObjectMapper objectMapper;
+    private final ChunkedJsonImporter chunkedJsonImporter;
 
     @Transactional
     @Override
@@ -89,30 +95,19 @@ public class ProductServiceImpl implements ProductService {
 
     @Transactional(readOnly = true)
     @Override
-    public byte[] exportProductsToJson() {
-        try {
-            List<ProductDTO> productDTOs = productMapper.toDtoList(productRepository.findAllWithCategory());
-            log.info("Экспортировано {} продуктов в JSON", productDTOs.size());
-            return objectMapper.writeValueAsBytes(productDTOs);
-        } catch (JsonProcessingException e) {
-            log.error("Ошибка сериализации категорий", e);
-            throw new DataExportException("Ошибка экспорта категорий");
+    public ExportResultDTO exportProductsToJson(OutputStream outputStream) throws IOException {
+        ExportResultDTO result;
+        try (Stream<ProductDTO> productDTOs = productRepository.streamAllAsDto()) {
+            result = ExportPipeline.write("products", ExportFormat.JSON, outputStream,
+                    out -> JsonStreamWriter.writeArray(objectMapper, productDTOs, out));
         }
+        log.info("Экспортировано {} продуктов в JSON", result.getRowCount());
+        return result;
     }
 
-    @Transactional
     @Override
-    public List<ProductDTO> importProductsFromJson(byte[] data) {
-        try {
-            List<ProductDTO> productDTOS = objectMapper.readValue(data, new TypeReference<>() {
-            });
-            List<Product> products = productMapper.toEntityList(productDTOS);
-            productRepository.saveAll(products);
-            log.info("Импортировано {} продуктов из JSON", products.size());
-            return productDTOS;
-        } catch (IOException e) {
-            log.error("Ошибка десериализации категорий", e);
-            throw new DataImportException("Ошибка импорта категорий");
-        }
+    public ImportResultDTO importProductsFromJson(InputStream inputStream) throws IOException {
+        return chunkedJsonImporter.importArray(inputStream, ProductDTO.class, "products",
+                chunk -> productRepository.saveAll(productMapper.toEntityList(chunk)));
     }
 }
\ No newline at end of file
@@ -1,15 +1,17 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.enums.ExportFormat;
 import com.example.repository.StoreRepository;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.StoreDTO;
 import com.example.entity.Store;
-import com.example.exceptions.DataExportException;
-import com.example.exceptions.DataImportException;
 import com.example.exceptions.StoreNotFoundException;
 import com.example.mapper.StoreMapper;
 import com.example.service.StoreService;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.utils.ChunkedJsonImporter;
+import com.example.utils.ExportPipeline;
+import com.example.utils.JsonStreamWriter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,7 +19,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -27,6 +32,7 @@ public class StoreServiceImpl implements StoreService {
     private final StoreRepository storeRepository;
     private final StoreMapper storeMapper;
     private final ObjectMapper objectMapper;
+    private final ChunkedJsonImporter chunkedJsonImporter;
 
     @Transactional
     @Override
@@ -75,31 +81,19 @@ public class StoreServiceImpl implements StoreService {
 
     @Transactional(readOnly = true)
     @Override
-    public byte[] exportStoresToJson() {
-        try {
-            List<StoreDTO> storeDTOS = storeMapper.toDtoList(storeRepository.findAll());
-            log.info("Экспортировано {} магазинов в JSON", storeDTOS.size());
-            return objectMapper.writeValueAsBytes(storeDTOS);
-        } catch (JsonProcessingException e) {
-            log.error("Ошибка сериализации категорий", e);
-            throw new DataExportException("Ошибка экспорта категорий");
+    public ExportResultDTO exportStoresToJson(OutputStream outputStream) throws IOException {
+        ExportResultDTO result;
+        try (Stream<StoreDTO> storeDTOS = storeRepository.streamAllAsDto()) {
+            result = ExportPipeline.write("stores", ExportFormat.JSON, outputStream,
+                    out -> JsonStreamWriter.writeArray(objectMapper, storeDTOS, out));
         }
+        log.info("Экспортировано {} магазинов в JSON", result.getRowCount());
+        return result;
     }
 
-    @Transactional
     @Override
-    public List<StoreDTO> importStoresFromJson(byte[] data) {
-        try {
-            List<StoreDTO> storeDTOS = objectMapper.readValue(data, new TypeReference<>() {});
-
-            List<Store> stores = storeMapper.toEntityList(storeDTOS);
-            storeRepository.saveAll(stores);
-
-            log.info("Импортировано {} магазинов из JSON", stores.size());
-            return storeDTOS;
-        } catch (IOException e) {
-            log.error("Ошибка десериализации категорий", e);
-            throw new DataImportException("Ошибка импорта категорий");
-        }
+    public ImportResultDTO importStoresFromJson(InputStream inputStream) throws IOException {
+        return chunkedJsonImporter.importArray(inputStream, StoreDTO.class, "stores",
+                chunk -> storeRepository.saveAll(storeMapper.toEntityList(chunk)));
     }
 }
\ No newline at end of file
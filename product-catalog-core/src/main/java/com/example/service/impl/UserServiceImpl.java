@@ -1,5 +1,7 @@
 package com.example.service.impl;
 
+import com.example.dto.TokenClaimsDTO;
+import com.example.exceptions.InvalidRequestParameterException;
 import com.example.repository.security.UserRepository;
 import com.example.entity.security.CustomUserDetails;
 import com.example.entity.security.User;
@@ -7,9 +9,11 @@ import com.example.exceptions.InvalidTokenException;
 import com.example.exceptions.UserAlreadyExistsException;
 import com.example.exceptions.UserNotFoundException;
 import com.example.service.security.UserService;
+import com.example.utils.TokenVersionCache;
+import com.example.utils.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwt;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -20,35 +24,59 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
-public class UserServiceImpl implements UserDetailsService, UserService {
+public class UserServiceImpl implements UserDetailsService, UserDetailsPasswordService, UserService {
 
     @Value("${jwt.secret.key}")
     private String SECRET_KEY;
     private SecretKey secretKey;
+    private JwtParser jwtParser;
     private static final long JWT_EXPIRATION_MS = 10 * 60 * 60 * 1000;
 
+    // Пользователь собирается из проверенных данных токена без чтения из БД
+    @Value("${security.jwt.stateless:true}")
+    private boolean stateless;
+    // Проверка версии токенов пользователя через кэш для отзыва токенов при смене роли или пароля
+    @Value("${security.jwt.version-check.enabled:true}")
+    private boolean versionCheckEnabled;
+
     private final UserRepository userRepository;
+    private final TokenVersionCache tokenVersionCache;
+    private final VerifiedTokenCache verifiedTokenCache;
 
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository,
+                           TokenVersionCache tokenVersionCache,
+                           VerifiedTokenCache verifiedTokenCache) {
         this.userRepository = userRepository;
+        this.tokenVersionCache = tokenVersionCache;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @PostConstruct
     public void init() {
         this.secretKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+        // Парсер неизменяемый и потокобезопасный, поэтому создается один раз
+        this.jwtParser = Jwts.parser()
+                .verifyWith(secretKey)
+                .build();
     }
 
     private SecretKey getSigningKey() {
@@ -70,27 +98,45 @@ public class UserServiceImpl implements UserDetailsService, UserService {
                 .claim("roles", userDetails.getAuthorities().stream()
                         .map(GrantedAuthority::getAuthority)
                         .collect(Collectors.toList()))
+                .claim("ver", user.getTokenVersion() != null ? user.getTokenVersion() : 0)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(getSigningKey())
                 .compact();
     }
 
-    @Transactional(readOnly = true)
     @Override
-    public String extractUsername(String token) {
-        try {
-            SecretKey key = getSigningKey();
-
-            Jwt<?, Claims> jwt = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
+    public TokenClaimsDTO parseToken(String token) {
+        // Клиенты используют один токен часами, подпись проверяется при первом запросе с ним
+        return verifiedTokenCache.get(token, this::verifyToken);
+    }
 
-            return jwt.getPayload().getSubject();
-        } catch (JwtException e) {
+    private TokenClaimsDTO verifyToken(String token) {
+        Claims claims;
+        try {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
             throw new InvalidTokenException("Невалидный токен", e);
         }
+        if (claims.getExpiration() == null) {
+            throw new InvalidTokenException("Токен без срока действия", null);
+        }
+
+        Number userId = claims.get("userId", Number.class);
+        List<?> roles = claims.get("roles", List.class);
+        Number tokenVersion = claims.get("ver", Number.class);
+        return new TokenClaimsDTO(
+                claims.getSubject(),
+                userId != null ? userId.longValue() : null,
+                roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+                claims.getExpiration().toInstant(),
+                tokenVersion != null ? tokenVersion.intValue() : null
+        );
+    }
+
+    @Override
+    public String extractUsername(String token) {
+        return parseToken(token).getUsername();
     }
 
     @Transactional(readOnly = true)
@@ -102,6 +148,12 @@ public class UserServiceImpl implements UserDetailsService, UserService {
             return null;
         }
 
+        // id уже есть в principal: для записи в журнал достаточно ссылки, таблица users не читается
+        if (authentication.getPrincipal() instanceof CustomUserDetails userDetails
+                && userDetails.getUserId() != null) {
+            return userRepository.getReferenceById(userDetails.getUserId());
+        }
+
         String username = ((UserDetails) authentication.getPrincipal()).getUsername();
         return userRepository.findByUsername(username).orElse(null);
     }
@@ -120,6 +172,7 @@ public class UserServiceImpl implements UserDetailsService, UserService {
             throw new UserNotFoundException(id);
         }
         userRepository.deleteById(id);
+        evictTokenVersionAfterCommit(id);
         log.info("Удален пользователь ID={}", id);
     }
 
@@ -127,42 +180,52 @@ public class UserServiceImpl implements UserDetailsService, UserService {
     @Override
     public void updateUser(User user) {
         Long id = user.getUserId();
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException(id);
-        }
+        User existingUser = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        // Сравнение до save: merge перезапишет поля загруженной сущности
+        boolean credentialsChanged = !Objects.equals(existingUser.getRole(), user.getRole())
+                || !Objects.equals(existingUser.getPassword(), user.getPassword());
 
         userRepository.save(user);
+        if (credentialsChanged) {
+            userRepository.incrementTokenVersion(id);
+            evictTokenVersionAfterCommit(id);
+            log.info("Роль или пароль пользователя ID={} изменены, ранее выданные токены отозваны", id);
+        }
         log.info("Обновлен пользователь ID={}", user.getUserId());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Запись удаляется после коммита: при удалении внутри транзакции параллельный запрос успеет
+     * загрузить старую версию и закэширует ее на ttl
+     */
+    private void evictTokenVersionAfterCommit(Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenVersionCache.evict(id);
+                }
+            });
+        } else {
+            tokenVersionCache.evict(id);
+        }
+    }
+
     @Override
     public boolean isTokenExpired(String token) {
-        try {
-            SecretKey key = getSigningKey();
-
-            Jwt<?, Claims> jwt = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-
-            Date expiration = jwt.getPayload().getExpiration();
-            return expiration.before(new Date());
-        } catch (JwtException e) {
-            throw new InvalidTokenException("Ошибка проверки токена", e);
-        }
+        return !parseToken(token).getExpiresAt().isAfter(Instant.now());
     }
 
-    @Transactional(readOnly = true)
     @Override
     public boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            final String username = extractUsername(token);
-            return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-        } catch (JwtException e) {
-            log.warn("Невалидный токен: {}", e.getMessage());
-            return false;
-        }
+        return validateToken(parseToken(token), userDetails);
+    }
+
+    @Override
+    public boolean validateToken(TokenClaimsDTO claims, UserDetails userDetails) {
+        return userDetails.getUsername().equals(claims.getUsername())
+                && claims.getExpiresAt().isAfter(Instant.now());
     }
 
     @Transactional(readOnly = true)
@@ -179,6 +242,46 @@ public class UserServiceImpl implements UserDetailsService, UserService {
         );
     }
 
+    @Override
+    public UserDetails loadUserFromToken(TokenClaimsDTO claims) {
+        // Токены, выданные до появления версии, проверяются по БД как раньше
+        if (!stateless || claims.getUserId() == null || claims.getTokenVersion() == null) {
+            return loadUserByUsername(claims.getUsername());
+        }
+
+        if (versionCheckEnabled) {
+            Integer currentVersion = tokenVersionCache.get(claims.getUserId(),
+                    userId -> userRepository.findTokenVersionById(userId).orElse(null));
+            if (!claims.getTokenVersion().equals(currentVersion)) {
+                throw new InvalidTokenException("Токен отозван", null);
+            }
+        }
+
+        return new CustomUserDetails(
+                claims.getUserId(),
+                claims.getUsername(),
+                "",
+                claims.getRoles().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList()
+        );
+    }
+
+    /**
+     * Вызывается DaoAuthenticationProvider после успешного входа, если хэш создан с другими параметрами
+     * (старая стоимость BCrypt или хэш без префикса алгоритма). Пароль не изменился, поэтому выданные
+     * токены остаются действительными
+     */
+    @Transactional
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        log.info("Хэш пароля пользователя {} пересчитан с текущими параметрами", user.getUsername());
+
+        Long userId = user instanceof CustomUserDetails userDetails ? userDetails.getUserId() : null;
+        return new CustomUserDetails(userId, user.getUsername(), newPassword, user.getAuthorities());
+    }
+
     @Transactional(readOnly = true)
     @Override
     public boolean userExists(String username) {
@@ -198,10 +301,10 @@ public class UserServiceImpl implements UserDetailsService, UserService {
 
     private void validateUser(User user) {
         if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
-            throw new IllegalArgumentException("Имя пользователя не может быть пустым");
+            throw new InvalidRequestParameterException("Имя пользователя не может быть пустым");
         }
         if (user.getPassword() == null || user.getPassword().length() < 4) {
-            throw new IllegalArgumentException("Пароль должен содержать не менее 4 символов");
+            throw new InvalidRequestParameterException("Пароль должен содержать не менее 4 символов");
         }
     }
 }
@@ -0,0 +1,17 @@
+package com.example.service.security;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface LoginService {
+
+    /**
+     * Проверяет пароль и выдает токен в отдельном ограниченном пуле, не занимая поток сервлета
+     * на время вычисления BCrypt
+     *
+     * @param username имя пользователя
+     * @param password пароль
+     * @return токен; завершается с BadCredentialsException при неверных данных
+     * @throws com.example.exceptions.LoginOverloadedException если очередь пула заполнена
+     */
+    CompletableFuture<String> login(String username, String password);
+}
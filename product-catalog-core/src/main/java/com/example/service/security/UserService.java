@@ -1,5 +1,6 @@
 package com.example.service.security;
 
+import com.example.dto.TokenClaimsDTO;
 import com.example.entity.security.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -16,6 +17,16 @@ public interface UserService {
      */
     String generateToken(UserDetails userDetails);
 
+    /**
+     * Разбирает токен и проверяет подпись и срок действия за один проход.
+     * Результат проверки кэшируется до истечения срока действия токена
+     *
+     * @param token токен
+     * @return имя пользователя, id, роли и срок действия из токена
+     * @throws com.example.exceptions.InvalidTokenException если токен поврежден, подпись неверна или срок истек
+     */
+    TokenClaimsDTO parseToken(String token);
+
     /**
      * Извлекает имя пользователя из полученного токена
      *
@@ -41,6 +52,15 @@ public interface UserService {
      */
     boolean validateToken(String token, UserDetails userDetails);
 
+    /**
+     * Проверяет, что уже разобранный токен выдан пользователю и не истек, без повторной проверки подписи
+     *
+     * @param claims данные токена из {@link #parseToken(String)}
+     * @param userDetails пользователь
+     * @return true, если токен действителен; false, если нет
+     */
+    boolean validateToken(TokenClaimsDTO claims, UserDetails userDetails);
+
     /**
      * Проверяет, существует ли пользователь с заданным именем
      *
@@ -65,7 +85,18 @@ public interface UserService {
     UserDetails loadUserByUsername(String username);
 
     /**
-     * Получение текущего пользователя
+     * Пользователь по проверенным данным токена. В режиме stateless собирается из claims без чтения из БД,
+     * отзыв токена проверяется по закэшированной версии токенов пользователя
+     *
+     * @param claims данные токена из {@link #parseToken(String)}
+     * @return данные пользователя
+     * @throws com.example.exceptions.InvalidTokenException если токен отозван
+     */
+    UserDetails loadUserFromToken(TokenClaimsDTO claims);
+
+    /**
+     * Получение текущего пользователя. Если principal содержит id, возвращается ссылка на пользователя
+     * без чтения из БД. Ссылка подходит для связи с журналом операций, поля кроме id вне транзакции не читаются
      *
      * @return пользователь
      */
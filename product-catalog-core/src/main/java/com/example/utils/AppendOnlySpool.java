@@ -0,0 +1,218 @@
+package com.example.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Журнал предзаписи (spool) для записей, ожидающих сохранения в БД.
+ * Записи дописываются построчно в файлы-сегменты и получают последовательные номера.
+ * Сегмент удаляется, когда все его записи подтверждены через {@link #commit(long)},
+ * а неподтвержденные записи передаются обработчику при следующем запуске через {@link #replay}.
+ * При включенном force каждый вызов {@link #appendAll} завершается сбросом канала на диск:
+ * пакет записей переживает сбой ОС одним fsync (group commit). Без force записи остаются
+ * в page cache и переживают только падение процесса
+ */
+@Slf4j
+public class AppendOnlySpool implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String QUARANTINE_SUFFIX = ".quarantined";
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final boolean force;
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+
+    private FileChannel currentChannel;
+    private Path currentPath;
+    private long currentSegmentId;
+    private long currentBytes;
+    private long nextSeq;
+    private long committedSeq = -1;
+
+    public AppendOnlySpool(Path directory, long segmentMaxBytes) throws IOException {
+        this(directory, segmentMaxBytes, true);
+    }
+
+    /**
+     * @param directory каталог сегментов
+     * @param segmentMaxBytes размер сегмента, после которого открывается следующий
+     * @param force сбрасывать ли канал на диск после каждого пакета записей
+     */
+    public AppendOnlySpool(Path directory, long segmentMaxBytes, boolean force) throws IOException {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.force = force;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Передает обработчику записи, оставшиеся от предыдущего запуска, пакетами заданного размера.
+     * Сегмент удаляется после успешной обработки всех его записей. Сегмент, который не удалось
+     * прочитать или обработать, переименовывается с суффиксом {@value #QUARANTINE_SUFFIX}
+     * и больше не воспроизводится, остальные сегменты обрабатываются дальше
+     *
+     * @param batchSize размер пакета
+     * @param consumer обработчик пакета записей
+     * @return количество записей в успешно обработанных сегментах
+     */
+    public synchronized long replay(int batchSize, Consumer<List<String>> consumer) throws IOException {
+        long replayed = 0;
+        for (Path segment : listSegments()) {
+            try {
+                replayed += replaySegment(segment, batchSize, consumer);
+                Files.delete(segment);
+            } catch (IOException | RuntimeException e) {
+                Path quarantined = segment.resolveSibling(segment.getFileName() + QUARANTINE_SUFFIX);
+                Files.move(segment, quarantined, StandardCopyOption.REPLACE_EXISTING);
+                log.error("Сегмент spool {} не воспроизведен и перенесен в карантин: {}", segment, quarantined, e);
+            }
+            currentSegmentId = Math.max(currentSegmentId, segmentId(segment) + 1);
+        }
+        return replayed;
+    }
+
+    /**
+     * Дописывает запись в текущий сегмент
+     *
+     * @param record запись без перевода строки
+     * @return порядковый номер записи
+     */
+    public synchronized long append(String record) throws IOException {
+        return appendAll(List.of(record));
+    }
+
+    /**
+     * Дописывает пакет записей и при включенном force один раз сбрасывает канал на диск.
+     * Записи получают последовательные номера
+     *
+     * @param records записи без перевода строки
+     * @return порядковый номер последней записи пакета
+     */
+    public synchronized long appendAll(List<String> records) throws IOException {
+        long seq = nextSeq - 1;
+        for (String record : records) {
+            if (currentChannel == null) {
+                openSegment();
+            }
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(record + "\n");
+            currentBytes += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                currentChannel.write(buffer);
+            }
+
+            seq = nextSeq++;
+            if (currentBytes >= segmentMaxBytes) {
+                rotate(seq);
+            }
+        }
+        if (force && currentChannel != null) {
+            currentChannel.force(false);
+        }
+        return seq;
+    }
+
+    /**
+     * Подтверждает сохранение всех записей с номером не больше заданного
+     *
+     * @param seq номер последней сохраненной записи
+     */
+    public synchronized void commit(long seq) throws IOException {
+        committedSeq = Math.max(committedSeq, seq);
+        while (!closedSegments.isEmpty() && closedSegments.peekFirst().lastSeq() <= committedSeq) {
+            Files.deleteIfExists(closedSegments.pollFirst().path());
+        }
+        if (currentChannel != null && currentBytes > 0 && committedSeq == nextSeq - 1) {
+            currentChannel.truncate(0);
+            currentBytes = 0;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (currentChannel != null) {
+            currentChannel.close();
+            currentChannel = null;
+            if (currentBytes == 0) {
+                Files.deleteIfExists(currentPath);
+            }
+        }
+    }
+
+    private void openSegment() throws IOException {
+        currentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, currentSegmentId, SEGMENT_SUFFIX));
+        currentChannel = FileChannel.open(currentPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        currentBytes = 0;
+    }
+
+    private void rotate(long lastSeq) throws IOException {
+        if (force) {
+            currentChannel.force(false);
+        }
+        currentChannel.close();
+        currentChannel = null;
+        closedSegments.addLast(new Segment(currentPath, lastSeq));
+        currentSegmentId++;
+    }
+
+    private static long replaySegment(Path segment, int batchSize, Consumer<List<String>> consumer)
+            throws IOException {
+        long replayed = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    replayed += batch.size();
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            replayed += batch.size();
+        }
+        return replayed;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private static long segmentId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Segment(Path path, long lastSeq) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.utils;
+
+import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryDTO;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая запись цен и истории цен в колоночном формате Arrow IPC (streaming format).
+ * Строки собираются в пакеты по BATCH_SIZE записей, каждый пакет сразу отправляется в выходной поток,
+ * поэтому в памяти одновременно находится только один пакет
+ */
+public final class ArrowExportWriter {
+
+    /**
+     * Количество строк в одном пакете (record batch)
+     */
+    static final int BATCH_SIZE = 65_536;
+
+    private static final ArrowType ID_TYPE = new ArrowType.Int(64, true);
+    private static final ArrowType PRICE_TYPE = new ArrowType.Int(32, true);
+    private static final ArrowType TIMESTAMP_TYPE = new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+
+    private ArrowExportWriter() {
+    }
+
+    /**
+     * Записывает цены в outputStream. Выходной поток не закрывается
+     *
+     * @param prices цены для выгрузки
+     * @param outputStream выходной поток
+     * @return количество записанных строк
+     * @throws IOException при ошибках записи
+     */
+    public static long writePrices(Stream<PriceDTO> prices, OutputStream outputStream) throws IOException {
+        return write(prices, "priceId", PriceDTO::getPriceId, PriceDTO::getProductId, PriceDTO::getStoreId,
+                PriceDTO::getPrice, PriceDTO::getRecordedAt, outputStream);
+    }
+
+    /**
+     * Записывает историю цен в outputStream. Выходной поток не закрывается
+     *
+     * @param history записи истории цен для выгрузки
+     * @param outputStream выходной поток
+     * @return количество записанных строк
+     * @throws IOException при ошибках записи
+     */
+    public static long writePriceHistory(Stream<PriceHistoryDTO> history, OutputStream outputStream) throws IOException {
+        return write(history, "priceHistoryId", PriceHistoryDTO::getPriceHistoryId, PriceHistoryDTO::getProductId,
+                PriceHistoryDTO::getStoreId, PriceHistoryDTO::getPrice, PriceHistoryDTO::getRecordedAt, outputStream);
+    }
+
+    private static <T> long write(Stream<T> rows,
+                                  String idColumn,
+                                  Function<T, Long> id,
+                                  Function<T, Long> productId,
+                                  Function<T, Long> storeId,
+                                  Function<T, Integer> price,
+                                  Function<T, LocalDateTime> recordedAt,
+                                  OutputStream outputStream) throws IOException {
+        Schema schema = new Schema(List.of(
+                Field.nullable(idColumn, ID_TYPE),
+                Field.nullable("productId", ID_TYPE),
+                Field.nullable("storeId", ID_TYPE),
+                Field.nullable("price", PRICE_TYPE),
+                Field.nullable("recordedAt", TIMESTAMP_TYPE)));
+
+        long count = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator);
+             ArrowStreamWriter writer = new ArrowStreamWriter(root, null,
+                     Channels.newChannel(StreamUtils.nonClosing(outputStream)))) {
+            BigIntVector idVector = (BigIntVector) root.getVector(0);
+            BigIntVector productIdVector = (BigIntVector) root.getVector(1);
+            BigIntVector storeIdVector = (BigIntVector) root.getVector(2);
+            IntVector priceVector = (IntVector) root.getVector(3);
+            TimeStampMicroVector recordedAtVector = (TimeStampMicroVector) root.getVector(4);
+            root.getFieldVectors().forEach(vector -> vector.setInitialCapacity(BATCH_SIZE));
+
+            writer.start();
+            root.allocateNew();
+            int batchRows = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                setLong(idVector, batchRows, id.apply(row));
+                setLong(productIdVector, batchRows, productId.apply(row));
+                setLong(storeIdVector, batchRows, storeId.apply(row));
+                setInt(priceVector, batchRows, price.apply(row));
+                setTimestamp(recordedAtVector, batchRows, recordedAt.apply(row));
+                batchRows++;
+                count++;
+
+                if (batchRows == BATCH_SIZE) {
+                    root.setRowCount(batchRows);
+                    writer.writeBatch();
+                    root.allocateNew();
+                    batchRows = 0;
+                }
+            }
+
+            if (batchRows > 0) {
+                root.setRowCount(batchRows);
+                writer.writeBatch();
+            }
+            writer.end();
+        }
+        return count;
+    }
+
+    private static void setLong(BigIntVector vector, int index, Long value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            vector.setSafe(index, value);
+        }
+    }
+
+    private static void setInt(IntVector vector, int index, Integer value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            vector.setSafe(index, value);
+        }
+    }
+
+    private static void setTimestamp(TimeStampMicroVector vector, int index, LocalDateTime value) {
+        if (value == null) {
+            vector.setNull(index);
+        } else {
+            vector.setSafe(index, value.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + value.getNano() / 1_000);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.utils;
+
+import com.example.enums.ChartFormat;
+import com.example.event.PriceHistoryAppendedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU-кэш готовых графиков истории цен с ограничением суммарного размера в байтах.
+ * Графики пары товар-магазин удаляются после фиксации новых записей истории цен этой пары
+ */
+@Component
+@Slf4j
+public class ChartCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<ChartKey, byte[]> charts = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Поколение пары товар-магазин увеличивается при каждой инвалидации этой пары.
+    // Записи не удаляются: иначе поколение пары сбросилось бы к 0 и совпало со старым
+    private final Map<PairKey, Long> generations = new HashMap<>();
+
+    private long currentBytes;
+
+    public ChartCache(@Value("${price.chart.cache.max-bytes:33554432}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized byte[] get(ChartKey key) {
+        return charts.get(key);
+    }
+
+    /**
+     * Текущее поколение пары товар-магазин. Увеличивается при инвалидации графиков этой пары
+     */
+    public synchronized long version(Long productId, Long storeId) {
+        return generations.getOrDefault(new PairKey(productId, storeId), 0L);
+    }
+
+    /**
+     * Сохраняет график, если с момента чтения поколения графики его пары не инвалидировались.
+     * Иначе график мог быть построен по устаревшим данным
+     *
+     * @param key ключ графика
+     * @param chart изображение графика
+     * @param expectedVersion поколение пары до чтения данных для графика
+     */
+    public synchronized void put(ChartKey key, byte[] chart, long expectedVersion) {
+        long version = generations.getOrDefault(new PairKey(key.productId(), key.storeId()), 0L);
+        if (version != expectedVersion || chart.length > maxBytes) {
+            return;
+        }
+
+        byte[] previous = charts.put(key, chart);
+        currentBytes += chart.length - (previous != null ? previous.length : 0);
+
+        Iterator<byte[]> eldest = charts.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPriceHistoryAppended(PriceHistoryAppendedEvent event) {
+        generations.merge(new PairKey(event.productId(), event.storeId()), 1L, Long::sum);
+        Iterator<Map.Entry<ChartKey, byte[]>> iterator = charts.entrySet().iterator();
+        int removed = 0;
+        while (iterator.hasNext()) {
+            Map.Entry<ChartKey, byte[]> entry = iterator.next();
+            if (entry.getKey().productId().equals(event.productId())
+                    && entry.getKey().storeId().equals(event.storeId())) {
+                currentBytes -= entry.getValue().length;
+                iterator.remove();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            log.debug("Удалено {} графиков из кэша: продукт ID={}, магазин ID={}",
+                    removed, event.productId(), event.storeId());
+        }
+    }
+
+    /**
+     * Ключ графика: пара товар-магазин, период, размер и формат изображения
+     */
+    public record ChartKey(Long productId, Long storeId, LocalDate startDate, LocalDate endDate,
+                           int width, int height, ChartFormat format) {
+    }
+
+    private record PairKey(Long productId, Long storeId) {
+    }
+}
@@ -1,33 +1,45 @@
 package com.example.utils;
 
-import com.example.entity.PriceHistory;
+import com.example.dto.PriceHistoryDTO;
+import com.example.enums.ChartFormat;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.time.Second;
 import org.jfree.data.time.TimeSeries;
 import org.jfree.data.time.TimeSeriesCollection;
+import org.jfree.svg.SVGGraphics2D;
 import org.springframework.stereotype.Component;
 
+import java.awt.Rectangle;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class ChartGenerator {
 
-    public byte[] generatePriceHistoryChart(List<PriceHistory> priceHistory) throws IOException {
-        TimeSeries series = new TimeSeries("Price");
-        for (PriceHistory price : priceHistory) {
-            series.add(new Second(price.getRecordedAt().getSecond(),
-                    price.getRecordedAt().getMinute(),
-                    price.getRecordedAt().getHour(),
-                    price.getRecordedAt().getDayOfMonth(),
-                    price.getRecordedAt().getMonthValue(),
-                    price.getRecordedAt().getYear()), price.getPrice());
-        }
+    public static final int DEFAULT_WIDTH = 800;
+    public static final int DEFAULT_HEIGHT = 600;
+    /** Значения по умолчанию для параметров запроса, которые принимают только строковые константы */
+    public static final String DEFAULT_WIDTH_PARAM = "" + DEFAULT_WIDTH;
+    public static final String DEFAULT_HEIGHT_PARAM = "" + DEFAULT_HEIGHT;
+    public static final int MIN_SIZE = 100;
+    public static final int MAX_SIZE = 4000;
+
+    /**
+     * Количество точек ряда на один пиксель ширины графика после прореживания
+     */
+    static final int POINTS_PER_PIXEL = 2;
 
-        TimeSeriesCollection dataset = new TimeSeriesCollection(series);
+    public byte[] generatePriceHistoryChart(List<PriceHistoryDTO> priceHistory, int width, int height,
+                                            ChartFormat format) throws IOException {
+        TimeSeriesCollection dataset = new TimeSeriesCollection(toSeries("Price", priceHistory, width));
 
         JFreeChart chart = ChartFactory.createTimeSeriesChart(
                 "Price History",
@@ -39,8 +51,121 @@ public class ChartGenerator {
                 false
         );
 
+        return render(chart, width, height, format);
+    }
+
+    /**
+     * Строит один график с отдельным рядом для каждого элемента карты
+     *
+     * @param historyBySeries история цен по названию ряда, порядок карты задает порядок рядов
+     * @param width ширина изображения в пикселях
+     * @param height высота изображения в пикселях
+     * @param format формат изображения
+     * @return массив байтов с изображением графика
+     */
+    public byte[] generateComparisonChart(Map<String, List<PriceHistoryDTO>> historyBySeries, int width, int height,
+                                          ChartFormat format) throws IOException {
+        TimeSeriesCollection dataset = new TimeSeriesCollection();
+        historyBySeries.forEach((name, history) -> dataset.addSeries(toSeries(name, history, width)));
+
+        JFreeChart chart = ChartFactory.createTimeSeriesChart(
+                "Price Comparison",
+                "Time",
+                "Price",
+                dataset,
+                true,
+                true,
+                false
+        );
+
+        return render(chart, width, height, format);
+    }
+
+    /**
+     * Прореживает ряд алгоритмом Largest-Triangle-Three-Buckets: точки делятся на интервалы,
+     * из каждого интервала остается точка, образующая наибольший треугольник с соседними.
+     * Форма ряда, включая пики и провалы, сохраняется
+     *
+     * @param points точки ряда, упорядоченные по времени
+     * @param threshold максимальное количество точек в результате
+     * @return исходный список, если точек не больше threshold, иначе прореженный список.
+     * Результат записывается в массив размера threshold без промежуточных коллекций
+     */
+    static List<PriceHistoryDTO> decimate(List<PriceHistoryDTO> points, int threshold) {
+        int size = points.size();
+        if (threshold < 3 || size <= threshold) {
+            return points;
+        }
+
+        PriceHistoryDTO[] sampled = new PriceHistoryDTO[threshold];
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int selected = 0;
+        sampled[0] = points.get(0);
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x(points.get(i));
+                avgY += points.get(i).getPrice();
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            double selectedX = x(points.get(selected));
+            double selectedY = points.get(selected).getPrice();
+            double maxArea = -1;
+            int candidate = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((selectedX - avgX) * (points.get(i).getPrice() - selectedY)
+                        - (selectedX - x(points.get(i))) * (avgY - selectedY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    candidate = i;
+                }
+            }
+            sampled[bucket + 1] = points.get(candidate);
+            selected = candidate;
+        }
+
+        sampled[threshold - 1] = points.get(size - 1);
+        return Arrays.asList(sampled);
+    }
+
+    private static TimeSeries toSeries(String name, List<PriceHistoryDTO> priceHistory, int width) {
+        TimeSeries series = new TimeSeries(name);
+        series.setNotify(false);
+        for (PriceHistoryDTO price : decimate(priceHistory, width * POINTS_PER_PIXEL)) {
+            LocalDateTime recordedAt = price.getRecordedAt();
+            series.addOrUpdate(new Second(recordedAt.getSecond(),
+                    recordedAt.getMinute(),
+                    recordedAt.getHour(),
+                    recordedAt.getDayOfMonth(),
+                    recordedAt.getMonthValue(),
+                    recordedAt.getYear()), price.getPrice());
+        }
+        series.setNotify(true);
+        return series;
+    }
+
+    private static byte[] render(JFreeChart chart, int width, int height, ChartFormat format) throws IOException {
+        if (format == ChartFormat.SVG) {
+            SVGGraphics2D graphics = new SVGGraphics2D(width, height);
+            chart.draw(graphics, new Rectangle(width, height));
+            return graphics.getSVGDocument().getBytes(StandardCharsets.UTF_8);
+        }
+
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ChartUtils.writeChartAsPNG(baos, chart, 800, 600);
+        ChartUtils.writeChartAsPNG(baos, chart, width, height);
         return baos.toByteArray();
     }
-}
\ No newline at end of file
+
+    private static double x(PriceHistoryDTO point) {
+        return point.getRecordedAt().toEpochSecond(ZoneOffset.UTC);
+    }
+}
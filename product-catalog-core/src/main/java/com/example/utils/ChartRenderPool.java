@@ -0,0 +1,62 @@
+package com.example.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограниченный пул потоков для построения графиков.
+ * При заполненной очереди задача отклоняется с {@link java.util.concurrent.RejectedExecutionException},
+ * чтобы всплеск запросов графиков не занимал потоки обработки API
+ */
+@Component
+@Slf4j
+public class ChartRenderPool {
+
+    private final ThreadPoolExecutor executor;
+
+    public ChartRenderPool(@Value("${price.chart.render.threads:2}") int threads,
+                           @Value("${price.chart.render.queue-capacity:50}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chart-render-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Ставит задачу построения графика в очередь пула
+     *
+     * @param task задача построения
+     * @return результат построения
+     * @throws java.util.concurrent.RejectedExecutionException если очередь пула заполнена
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        log.info("Пул построения графиков остановлен");
+    }
+}
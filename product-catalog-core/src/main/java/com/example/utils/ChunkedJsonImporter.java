@@ -0,0 +1,158 @@
+package com.example.utils;
+
+import com.example.dto.ImportChunkErrorDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.exceptions.DataImportException;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потоковый импорт JSON-массива: элементы разбираются JsonParser по одному
+ * и сохраняются порциями, каждая порция в отдельной транзакции.
+ * Ошибка сохранения порции откатывает только эту порцию, импорт продолжается со следующей
+ */
+@Component
+@Slf4j
+public class ChunkedJsonImporter {
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public ChunkedJsonImporter(ObjectMapper objectMapper,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${data.import.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Читает JSON-массив из потока и передает элементы в chunkWriter порциями по chunkSize.
+     * Входной поток не закрывается
+     *
+     * @param inputStream поток с JSON-массивом
+     * @param type класс элемента массива
+     * @param entityName название данных для журнала
+     * @param chunkWriter сохранение одной порции, вызывается внутри транзакции
+     * @return итог импорта с ошибками по порциям
+     * @throws DataImportException если данные не являются JSON-массивом
+     * @throws IOException при ошибках чтения потока, кроме ошибок разбора JSON
+     */
+    public <T> ImportResultDTO importArray(InputStream inputStream, Class<T> type, String entityName,
+                                           Consumer<List<T>> chunkWriter) throws IOException {
+        ImportResultDTO result = new ImportResultDTO(0L, 0L, 0L, 0, new ArrayList<>());
+        List<T> chunk = new ArrayList<>(chunkSize);
+        String parseError = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new DataImportException("Ожидается JSON-массив: " + entityName);
+            }
+
+            long recordNumber = 0;
+            while (true) {
+                T item;
+                try {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    item = objectMapper.readValue(parser, type);
+                } catch (JsonProcessingException e) {
+                    // Остальные IOException - обрыв соединения или поврежденный сжатый поток, они пробрасываются
+                    log.error("Импорт {} остановлен: ошибка разбора записи {}", entityName, recordNumber + 1, e);
+                    parseError = parseErrorMessage(e, recordNumber + 1);
+                    break;
+                }
+
+                chunk.add(item);
+                recordNumber++;
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, chunkWriter, entityName, result);
+                    chunk.clear();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, chunkWriter, entityName, result);
+        }
+        if (parseError != null) {
+            long failedRecord = result.getTotalRecords() + 1;
+            result.getErrors().add(new ImportChunkErrorDTO(result.getChunks() + 1,
+                    failedRecord, failedRecord, parseError));
+        }
+
+        log.info("Импорт {} завершен: записей {}, сохранено {}, с ошибками {}, порций {}",
+                entityName, result.getTotalRecords(), result.getImportedRecords(),
+                result.getFailedRecords(), result.getChunks());
+        return result;
+    }
+
+    private <T> void writeChunk(List<T> chunk, Consumer<List<T>> chunkWriter, String entityName,
+                                ImportResultDTO result) {
+        int chunkNumber = result.getChunks() + 1;
+        long firstRecord = result.getTotalRecords() + 1;
+        long lastRecord = result.getTotalRecords() + chunk.size();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> chunkWriter.accept(chunk));
+            result.setImportedRecords(result.getImportedRecords() + chunk.size());
+        } catch (RuntimeException e) {
+            log.warn("Порция {} импорта {} (записи {}-{}) отклонена: {}", chunkNumber, entityName,
+                    firstRecord, lastRecord, NestedExceptionUtils.getMostSpecificCause(e).getMessage(), e);
+            String message = chunkErrorMessage(e) + " в записях " + firstRecord + "-" + lastRecord;
+            result.setFailedRecords(result.getFailedRecords() + chunk.size());
+            result.getErrors().add(new ImportChunkErrorDTO(chunkNumber, firstRecord, lastRecord, message));
+        }
+
+        result.setChunks(chunkNumber);
+        result.setTotalRecords(lastRecord);
+        log.info("Импорт {}: обработано {} записей, сохранено {}",
+                entityName, result.getTotalRecords(), result.getImportedRecords());
+    }
+
+    /**
+     * Краткое описание ошибки порции для клиента. Текст исключения может содержать SQL и значения
+     * других записей, поэтому он остается только в журнале
+     */
+    private static String chunkErrorMessage(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return "Нарушение ограничения целостности";
+        }
+        if (e instanceof DataAccessException) {
+            return "Ошибка базы данных";
+        }
+        if (e instanceof IllegalArgumentException || e instanceof InvalidRequestParameterException) {
+            return "Некорректные данные";
+        }
+        return "Ошибка сохранения";
+    }
+
+    private static String parseErrorMessage(JsonProcessingException e, long recordNumber) {
+        String message = "Ошибка разбора JSON в записи " + recordNumber;
+        if (e.getLocation() != null) {
+            JsonLocation location = e.getLocation();
+            message += " (строка " + location.getLineNr() + ", столбец " + location.getColumnNr() + ")";
+        }
+        return message;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.utils;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Считает байты, записанные в поток. Счетчик можно читать из другого потока, например для отображения прогресса
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+    private final AtomicLong count = new AtomicLong();
+
+    public CountingOutputStream(OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        count.incrementAndGet();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        count.addAndGet(len);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.utils;
+
+import com.example.exceptions.InvalidRequestParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор инкрементальной выгрузки. Внутри - версия формата и конец окна предыдущей выгрузки,
+ * клиент передает курсор обратно без разбора
+ */
+public final class DeltaCursor {
+
+    private static final String VERSION_PREFIX = "v1:";
+
+    private DeltaCursor() {
+    }
+
+    /**
+     * @param watermark конец окна выгрузки
+     * @return курсор в Base64 URL-safe без выравнивания
+     */
+    public static String encode(LocalDateTime watermark) {
+        byte[] value = (VERSION_PREFIX + watermark).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    /**
+     * @param cursor курсор из предыдущей выгрузки
+     * @return конец окна предыдущей выгрузки
+     * @throws InvalidRequestParameterException если курсор поврежден или создан другой версией формата
+     */
+    public static LocalDateTime decode(String cursor) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestParameterException("Некорректный курсор выгрузки", e);
+        }
+        if (!value.startsWith(VERSION_PREFIX)) {
+            throw new InvalidRequestParameterException("Некорректный курсор выгрузки");
+        }
+
+        try {
+            return LocalDateTime.parse(value.substring(VERSION_PREFIX.length()));
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestParameterException("Некорректный курсор выгрузки", e);
+        }
+    }
+}
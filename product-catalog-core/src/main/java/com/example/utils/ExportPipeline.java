@@ -0,0 +1,54 @@
+package com.example.utils;
+
+import com.example.dto.ExportResultDTO;
+import com.example.enums.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общая обвязка выгрузки: запись выполняется за один проход по данным,
+ * а количество строк, размер и длительность возвращаются вместе с результатом
+ * и используются для журнала операций без повторного чтения таблицы
+ */
+public final class ExportPipeline {
+
+    private ExportPipeline() {
+    }
+
+    /**
+     * Запись строк выгрузки в поток
+     */
+    @FunctionalInterface
+    public interface RowWriter {
+
+        /**
+         * @param outputStream поток для записи
+         * @return количество записанных строк
+         * @throws IOException при ошибках записи
+         */
+        long write(OutputStream outputStream) throws IOException;
+    }
+
+    /**
+     * Выполняет запись и собирает сведения о выгрузке. Выходной поток не закрывается
+     *
+     * @param tableName выгружаемая таблица
+     * @param format формат выгрузки
+     * @param outputStream выходной поток
+     * @param writer запись строк
+     * @return количество строк, размер в байтах и длительность выгрузки
+     * @throws IOException при ошибках записи
+     */
+    public static ExportResultDTO write(String tableName, ExportFormat format, OutputStream outputStream,
+                                        RowWriter writer) throws IOException {
+        long startedAt = System.nanoTime();
+        CountingOutputStream countingStream = new CountingOutputStream(outputStream);
+        long rowCount = writer.write(countingStream);
+        countingStream.flush();
+
+        return new ExportResultDTO(tableName, format, rowCount, countingStream.getCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+}
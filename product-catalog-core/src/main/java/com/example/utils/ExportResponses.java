@@ -0,0 +1,64 @@
+package com.example.utils;
+
+import com.example.enums.CompressionType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+
+/**
+ * Построение ответа потоковой выгрузки со сжатием.
+ * Явно запрошенное сжатие отдается как сжатый файл (prices.json.gz),
+ * сжатие по Accept-Encoding - как прозрачный Content-Encoding того же файла
+ */
+public final class ExportResponses {
+
+    private ExportResponses() {
+    }
+
+    /**
+     * @param fileName имя выгружаемого файла без расширения сжатия
+     * @param contentType тип несжатого содержимого
+     * @param requested сжатие из параметра запроса, null - выбрать по Accept-Encoding
+     * @param acceptEncoding значение заголовка Accept-Encoding, может быть null
+     * @param body запись несжатого содержимого
+     * @return ответ, тело которого сжимается по мере записи
+     */
+    public static ResponseEntity<StreamingResponseBody> stream(String fileName,
+                                                               String contentType,
+                                                               CompressionType requested,
+                                                               String acceptEncoding,
+                                                               StreamingResponseBody body) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        CompressionType compression;
+
+        if (requested != null) {
+            compression = requested;
+            builder.header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + fileName + compression.getExtension() + "\"")
+                    .contentType(MediaType.parseMediaType(
+                            compression == CompressionType.NONE ? contentType : compression.getContentType()));
+        } else {
+            compression = StreamCompression.negotiate(acceptEncoding);
+            builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .contentType(MediaType.parseMediaType(contentType));
+            if (compression != CompressionType.NONE) {
+                builder.header(HttpHeaders.CONTENT_ENCODING, compression.getEncoding());
+            }
+        }
+
+        if (compression == CompressionType.NONE) {
+            return builder.body(body);
+        }
+        return builder.body(outputStream -> {
+            try (OutputStream compressed = StreamCompression.compress(
+                    StreamUtils.nonClosing(outputStream), compression)) {
+                body.writeTo(compressed);
+            }
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая запись JSON: элементы сериализуются по одному сразу в выходной поток,
+ * без накопления списка и промежуточного массива байтов
+ */
+public final class JsonStreamWriter {
+
+    private JsonStreamWriter() {
+    }
+
+    /**
+     * Записывает элементы потока в outputStream как JSON-массив. Выходной поток не закрывается
+     *
+     * @param objectMapper настроенный ObjectMapper приложения
+     * @param items элементы массива
+     * @param outputStream выходной поток
+     * @return количество записанных элементов
+     * @throws IOException при ошибках записи
+     */
+    public static <T> long writeArray(ObjectMapper objectMapper, Stream<T> items,
+                                      OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            generator.flush();
+
+            for (T item : (Iterable<T>) items::iterator) {
+                generator.writeObject(item);
+                count++;
+            }
+            generator.writeEndArray();
+        }
+        return count;
+    }
+
+    /**
+     * Записывает инкрементальную выгрузку как JSON-объект
+     * {"cursor": "...", "changed": [...], "deleted": [id, ...]}. Выходной поток не закрывается
+     *
+     * @param objectMapper настроенный ObjectMapper приложения
+     * @param cursor курсор для следующей выгрузки
+     * @param changed измененные и добавленные строки
+     * @param deletedIds id удаленных строк
+     * @param outputStream выходной поток
+     * @return общее количество измененных и удаленных строк
+     * @throws IOException при ошибках записи
+     */
+    public static <T> long writeDelta(ObjectMapper objectMapper, String cursor, Stream<T> changed,
+                                      Stream<Long> deletedIds, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeStringField("cursor", cursor);
+            generator.flush();
+
+            generator.writeArrayFieldStart("changed");
+            for (T item : (Iterable<T>) changed::iterator) {
+                generator.writeObject(item);
+                count++;
+            }
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("deleted");
+            for (Long id : (Iterable<Long>) deletedIds::iterator) {
+                generator.writeNumber(id);
+                count++;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return count;
+    }
+}
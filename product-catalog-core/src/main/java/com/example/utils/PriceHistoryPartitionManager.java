@@ -0,0 +1,187 @@
+package com.example.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Обслуживает помесячные секции таблицы price_history:
+ * заранее создает секции на ближайшие месяцы и отсоединяет или удаляет секции,
+ * вышедшие за срок хранения. Если строки месяца уже попали в секцию по умолчанию,
+ * секция месяца создается с переносом этих строк. Ошибки обслуживания учитываются в метриках
+ * price.history.partitions.failures и price.history.partitions.missing
+ */
+@Component
+@Slf4j
+public class PriceHistoryPartitionManager {
+
+    private static final String PARENT_TABLE = "price_history";
+    private static final String DEFAULT_PARTITION = "price_history_default";
+    private static final String COLUMNS = "price_history_id, product_id, store_id, price, recorded_at";
+    private static final String FAILURES_METRIC = "price.history.partitions.failures";
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("price_history_(\\d{4})_(\\d{2})");
+
+    private static final String FIND_PARTITIONS_SQL = """
+            SELECT child.relname
+            FROM pg_inherits
+                     JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                     JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = ?
+            """;
+
+    private static final String PARTITION_EXISTS_SQL = "SELECT to_regclass(?) IS NOT NULL";
+
+    private static final String DEFAULT_HAS_ROWS_SQL = "SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION
+            + " WHERE recorded_at >= ? AND recorded_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetentionAction retentionAction;
+    private final Counter createFailures;
+    private final Counter expireFailures;
+    private final AtomicInteger missingPartitions = new AtomicInteger();
+
+    public PriceHistoryPartitionManager(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${price.history.partitions.months-ahead:3}") int monthsAhead,
+                                        @Value("${price.history.partitions.retention-months:0}") int retentionMonths,
+                                        @Value("${price.history.partitions.retention-action:DETACH}")
+                                        RetentionAction retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+        this.createFailures = meterRegistry.counter(FAILURES_METRIC, "operation", "create");
+        this.expireFailures = meterRegistry.counter(FAILURES_METRIC, "operation", "expire");
+        meterRegistry.gauge("price.history.partitions.missing", missingPartitions);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${price.history.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        maintainPartitions(LocalDate.now());
+    }
+
+    void maintainPartitions(LocalDate today) {
+        YearMonth currentMonth = YearMonth.from(today);
+        createFuturePartitions(currentMonth);
+        if (retentionMonths > 0) {
+            expirePartitions(currentMonth.minusMonths(retentionMonths));
+        }
+    }
+
+    private void createFuturePartitions(YearMonth currentMonth) {
+        int missing = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            try {
+                createPartition(month);
+            } catch (DataAccessException e) {
+                missing++;
+                createFailures.increment();
+                log.error("Ошибка создания секции {} истории цен", partitionName(month), e);
+            }
+        }
+        missingPartitions.set(missing);
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(PARTITION_EXISTS_SQL, Boolean.class, partition))) {
+            return;
+        }
+
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        String createSql = String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                partition, PARENT_TABLE, from.toLocalDate(), to.toLocalDate());
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(DEFAULT_HAS_ROWS_SQL, Boolean.class, from, to))) {
+            jdbcTemplate.execute(createSql);
+            return;
+        }
+
+        // Секция не создается, пока в секции по умолчанию есть строки ее диапазона:
+        // секция по умолчанию отсоединяется на время переноса и присоединяется обратно
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(createSql);
+            // Вставка напрямую в секцию: триггер дневных агрегатов на price_history не учитывает строки повторно
+            int moved = jdbcTemplate.update("INSERT INTO " + partition + " (" + COLUMNS + ") SELECT " + COLUMNS
+                    + " FROM " + DEFAULT_PARTITION + " WHERE recorded_at >= ? AND recorded_at < ?", from, to);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE recorded_at >= ? AND recorded_at < ?",
+                    from, to);
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + DEFAULT_PARTITION
+                    + " DEFAULT");
+            log.info("Создана секция истории цен {}, из секции по умолчанию перенесено {} строк", partition, moved);
+        });
+    }
+
+    /**
+     * Отсоединяет или удаляет секции, целиком лежащие раньше первого хранимого месяца
+     *
+     * @param firstRetainedMonth первый месяц, данные которого хранятся
+     */
+    private void expirePartitions(YearMonth firstRetainedMonth) {
+        List<String> partitions = jdbcTemplate.queryForList(FIND_PARTITIONS_SQL, String.class, PARENT_TABLE);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(firstRetainedMonth)) {
+                continue;
+            }
+
+            try {
+                if (retentionAction == RetentionAction.DROP) {
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                    log.info("Удалена устаревшая секция истории цен {}", partition);
+                } else {
+                    jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition);
+                    log.info("Отсоединена устаревшая секция истории цен {}", partition);
+                }
+            } catch (DataAccessException e) {
+                expireFailures.increment();
+                log.error("Ошибка обработки устаревшей секции {} истории цен", partition, e);
+            }
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_" + month.format(SUFFIX_FORMAT);
+    }
+
+    /**
+     * Действие над секциями, вышедшими за срок хранения
+     */
+    public enum RetentionAction {
+        /** Отсоединить секцию, сохранив ее как обычную таблицу для архивации */
+        DETACH,
+        /** Удалить секцию вместе с данными */
+        DROP
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.utils;
+
+import com.example.enums.CompressionType;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Потоковое сжатие и распаковка gzip/zstd: данные проходят через компрессор по мере записи и чтения,
+ * без промежуточной буферизации всего файла
+ */
+public final class StreamCompression {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Уровень zstd: близок к gzip по степени сжатия при заметно меньших затратах CPU
+     */
+    static final int ZSTD_LEVEL = 3;
+
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD};
+
+    private StreamCompression() {
+    }
+
+    /**
+     * Выбирает алгоритм по заголовку Accept-Encoding (RFC 9110, 12.5.3): побеждает поддерживаемая
+     * кодировка с наибольшим q, при равных весах предпочтение отдается zstd. Кодировки с q=0 недопустимы.
+     * «*» задает вес gzip, если он не указан явно, zstd выбирается только по явному указанию.
+     * Без сжатия ответ отдается, если клиент явно указал identity с весом больше,
+     * чем у любой поддерживаемой кодировки
+     *
+     * @param acceptEncoding значение заголовка, может быть null
+     * @return выбранный алгоритм или NONE, если клиент не поддерживает сжатие
+     */
+    public static CompressionType negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return CompressionType.NONE;
+        }
+
+        Map<String, Double> weights = new HashMap<>();
+        for (String token : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = token.trim().split(";");
+            String coding = parts[0].trim();
+            if (coding.equals("x-gzip")) {
+                coding = CompressionType.GZIP.getEncoding();
+            }
+            if (!coding.isEmpty()) {
+                weights.merge(coding, weight(parts), Math::max);
+            }
+        }
+
+        double zstd = weights.getOrDefault(CompressionType.ZSTD.getEncoding(), 0.0);
+        double gzip = weights.getOrDefault(CompressionType.GZIP.getEncoding(), weights.getOrDefault("*", 0.0));
+        double identity = weights.getOrDefault("identity", 0.0);
+
+        double best = Math.max(zstd, gzip);
+        if (best <= 0 || identity > best) {
+            return CompressionType.NONE;
+        }
+        return zstd >= gzip ? CompressionType.ZSTD : CompressionType.GZIP;
+    }
+
+    /**
+     * Оборачивает поток компрессором. Закрытие возвращенного потока дописывает
+     * завершающий блок сжатого формата и закрывает исходный поток
+     *
+     * @param outputStream поток для записи сжатых данных
+     * @param type алгоритм сжатия
+     * @return поток для записи несжатых данных
+     * @throws IOException при ошибках записи заголовка
+     */
+    public static OutputStream compress(OutputStream outputStream, CompressionType type) throws IOException {
+        return switch (type) {
+            case GZIP -> new GZIPOutputStream(outputStream, BUFFER_SIZE);
+            case ZSTD -> new ZstdOutputStream(outputStream, ZSTD_LEVEL);
+            case NONE -> outputStream;
+        };
+    }
+
+    /**
+     * Определяет сжатие по сигнатуре первых байтов и возвращает поток распакованных данных.
+     * Данные без сигнатуры gzip или zstd возвращаются без изменений
+     *
+     * @param inputStream исходный поток
+     * @return поток распакованных данных
+     * @throws IOException при ошибках чтения
+     */
+    public static InputStream decompress(InputStream inputStream) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(inputStream, BUFFER_SIZE);
+        buffered.mark(ZSTD_MAGIC.length);
+        byte[] header = buffered.readNBytes(ZSTD_MAGIC.length);
+        buffered.reset();
+
+        if (startsWith(header, GZIP_MAGIC)) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        if (startsWith(header, ZSTD_MAGIC)) {
+            return new ZstdInputStream(buffered);
+        }
+        return buffered;
+    }
+
+    /**
+     * @return значение параметра q, 1 без параметра и 0 для некорректного значения
+     */
+    private static double weight(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    double q = Double.parseDouble(parameter.substring(2));
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
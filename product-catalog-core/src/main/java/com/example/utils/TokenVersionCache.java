@@ -0,0 +1,73 @@
+package com.example.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Кэш версий токенов пользователей для проверки отзыва JWT без запроса к БД на каждый запрос.
+ * Запись живет ttl: смена роли или пароля на другом экземпляре приложения становится видна не позже,
+ * на этом экземпляре запись удаляется сразу. При заполнении версии загружаются без кэширования,
+ * пока очистка не удалит устаревшие записи
+ */
+@Component
+@Slf4j
+public class TokenVersionCache {
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    public TokenVersionCache(@Value("${security.jwt.version-cache-ttl-seconds:30}") long ttlSeconds,
+                             @Value("${security.jwt.version-cache-max-size:10000}") int maxSize) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param userId id пользователя
+     * @param loader загрузка версии из БД при отсутствии или устаревании записи
+     * @return версия токенов или null, если пользователь удален
+     */
+    public Integer get(Long userId, Function<Long, Integer> loader) {
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && now - cached.loadedAt() < ttlNanos) {
+            return cached.version();
+        }
+
+        Integer version = loader.apply(userId);
+        if (cached != null || versions.size() < maxSize) {
+            versions.put(userId, new CachedVersion(version, now));
+        }
+        return version;
+    }
+
+    public void evict(Long userId) {
+        versions.remove(userId);
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.cache.cleanup-interval-ms:60000}")
+    public void deleteExpired() {
+        long now = System.nanoTime();
+        int before = versions.size();
+        versions.values().removeIf(cached -> now - cached.loadedAt() >= ttlNanos);
+        int removed = before - versions.size();
+        if (removed > 0) {
+            log.debug("Из кэша версий токенов удалено {} устаревших записей", removed);
+        }
+    }
+
+    private record CachedVersion(Integer version, long loadedAt) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.utils;
+
+import com.example.dto.TokenClaimsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Кэш проверенных JWT: SHA-256 токена -> разобранные данные токена.
+ * Повторный запрос с тем же токеном не проверяет подпись заново. Запись действует до exp токена,
+ * сам токен в памяти не хранится. При заполнении новые токены проверяются без кэширования,
+ * пока очистка не удалит истекшие записи
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+    private static final String REQUESTS_METRIC = "jwt.cache.requests";
+
+    private final int maxSize;
+    private final Map<String, TokenClaimsDTO> tokens = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${security.jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter(REQUESTS_METRIC, "result", "hit");
+        this.misses = meterRegistry.counter(REQUESTS_METRIC, "result", "miss");
+        meterRegistry.gaugeMapSize("jwt.cache.size", Tags.empty(), tokens);
+    }
+
+    /**
+     * @param token JWT
+     * @param verifier проверка подписи и разбор токена при отсутствии действующей записи
+     * @return данные токена
+     */
+    public TokenClaimsDTO get(String token, Function<String, TokenClaimsDTO> verifier) {
+        String digest = digest(token);
+        TokenClaimsDTO cached = tokens.get(digest);
+        if (cached != null) {
+            if (cached.getExpiresAt().isAfter(Instant.now())) {
+                hits.increment();
+                return cached;
+            }
+            tokens.remove(digest, cached);
+        }
+
+        misses.increment();
+        TokenClaimsDTO claims = verifier.apply(token);
+        if (tokens.size() < maxSize) {
+            tokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.cache.cleanup-interval-ms:60000}")
+    public void deleteExpired() {
+        Instant now = Instant.now();
+        int before = tokens.size();
+        tokens.values().removeIf(claims -> !claims.getExpiresAt().isAfter(now));
+        int removed = before - tokens.size();
+        if (removed > 0) {
+            log.debug("Из кэша токенов удалено {} истекших записей", removed);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.controller;
+
+import com.example.advice.GlobalExceptionHandler;
+import com.example.exceptions.LoginOverloadedException;
+import com.example.service.security.LoginService;
+import com.example.service.security.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthControllerTest {
+
+    private static final String LOGIN_JSON = "{\"username\":\"testUser\",\"password\":\"password\"}";
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private LoginService loginService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private AuthController authController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(authController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testLogin() throws Exception {
+        // GIVEN
+        when(loginService.login("testUser", "password")).thenReturn(CompletableFuture.completedFuture("token"));
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(LOGIN_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().string("token"));
+    }
+
+    @Test
+    void testLogin_BadCredentials() throws Exception {
+        // GIVEN
+        when(loginService.login("testUser", "password"))
+                .thenReturn(CompletableFuture.failedFuture(new BadCredentialsException("Bad credentials")));
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(LOGIN_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testLogin_Overloaded() throws Exception {
+        // GIVEN
+        when(loginService.login("testUser", "password")).thenThrow(new LoginOverloadedException());
+
+        // WHEN & THEN
+        mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(LOGIN_JSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.error").value("TOO_MANY_LOGIN_REQUESTS"));
+    }
+}
@@ -2,7 +2,10 @@ package com.example.controller;
 
 import com.example.dto.CategoryCreateDTO;
 import com.example.dto.CategoryDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.entity.Category;
+import com.example.enums.ExportFormat;
 import com.example.mapper.CategoryMapper;
 import com.example.service.CategoryService;
 import com.example.service.DataLogService;
@@ -19,12 +22,15 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
-import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -198,51 +204,59 @@ class CategoryControllerTest {
     @Test
     void testExportCategories() throws Exception {
         // GIVEN
-        byte[] mockData = ("{\"categories\":[{\"categoryName\":\"Electronics\",\"createdAt\":\"" +
-                testTime + "\"}]}").getBytes();
-        when(categoryService.exportCategoriesToJson()).thenReturn(mockData);
+        byte[] mockData = "[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8);
+        ExportResultDTO result = new ExportResultDTO("categories", ExportFormat.JSON, 2L, (long) mockData.length, 5L);
+        when(categoryService.exportCategoriesToJson(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(mockData);
+            return result;
+        });
 
         // WHEN
-        mockMvc.perform(get("/categories/export"))
+        MvcResult mvcResult = mockMvc.perform(get("/categories/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"categories.json\""))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(content().string(containsString("Electronics")))
-                .andExpect(content().string(containsString(testTime.toString())));
+                .andExpect(content().bytes(mockData));
 
         // THEN
-        verify(categoryService).exportCategoriesToJson();
+        verify(dataLogService).logExport(result, null);
+        verify(categoryService).exportCategoriesToJson(any(OutputStream.class));
+        verifyNoMoreInteractions(categoryService);
     }
 
     @Test
     void testImportCategories() throws Exception {
         // GIVEN
-        String jsonContent = String.format(
-                "[{\"categoryName\":\"Imported\",\"createdAt\":\"%s\",\"updatedAt\":\"%s\"}]",
-                testTime, testTime);
-        byte[] jsonData = jsonContent.getBytes();
+        byte[] jsonData = "[{\"categoryName\":\"Imported\"}]".getBytes();
+        ImportResultDTO importResult = new ImportResultDTO(1L, 1L, 0L, 1, List.of());
 
-        CategoryDTO importedCategory = new CategoryDTO(1L, "Imported", null, testTime, testTime);
         MockMultipartFile file = new MockMultipartFile(
                 "file",
                 "categories.json",
                 MediaType.APPLICATION_JSON_VALUE,
                 jsonData);
 
-        when(categoryService.importCategoriesFromJson(jsonData))
-                .thenReturn(List.of(importedCategory));
+        when(categoryService.importCategoriesFromJson(any(InputStream.class)))
+                .thenReturn(importResult);
 
         // WHEN
         mockMvc.perform(multipart("/categories/import")
                         .file(file))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].categoryName").value("Imported"))
-                .andExpect(jsonPath("$[0].createdAt").exists())
-                .andExpect(jsonPath("$[0].updatedAt").exists());
+                .andExpect(jsonPath("$.totalRecords").value(1))
+                .andExpect(jsonPath("$.importedRecords").value(1))
+                .andExpect(jsonPath("$.failedRecords").value(0))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
 
         // THEN
-        verify(categoryService).importCategoriesFromJson(jsonData);
+        verify(categoryService).importCategoriesFromJson(any(InputStream.class));
+        verify(dataLogService).logOperation("IMPORT", "categories", 1L, null);
     }
 
     @Test
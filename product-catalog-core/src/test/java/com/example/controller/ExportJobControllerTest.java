@@ -0,0 +1,133 @@
+package com.example.controller;
+
+import com.example.advice.GlobalExceptionHandler;
+import com.example.dto.ExportJobDTO;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportJobStatus;
+import com.example.enums.ExportTable;
+import com.example.exceptions.ExportJobNotFoundException;
+import com.example.service.ExportJobService;
+import com.example.service.security.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportJobControllerTest {
+
+    private static final String JOB_ID = "6f1c1f5e-3d4b-4b57-9a53-0a8a5c1f2e11";
+
+    @Mock
+    private ExportJobService exportJobService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private ExportJobController exportJobController;
+
+    @TempDir
+    private Path directory;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(exportJobController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void testStartExport() throws Exception {
+        // GIVEN
+        when(exportJobService.startExport(ExportTable.PRICE_HISTORY, ExportFormat.ARROW, CompressionType.ZSTD, null))
+                .thenReturn(createJob(ExportJobStatus.QUEUED, null));
+
+        // WHEN
+        mockMvc.perform(post("/exports")
+                        .param("table", "PRICE_HISTORY")
+                        .param("format", "ARROW")
+                        .param("compression", "ZSTD"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/exports/" + JOB_ID))
+                .andExpect(jsonPath("$.jobId").value(JOB_ID))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+
+        // THEN
+        verify(exportJobService).startExport(ExportTable.PRICE_HISTORY, ExportFormat.ARROW, CompressionType.ZSTD, null);
+    }
+
+    @Test
+    void testGetExport_NotFound() throws Exception {
+        // GIVEN
+        when(exportJobService.getJob(JOB_ID)).thenThrow(new ExportJobNotFoundException(JOB_ID));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/exports/" + JOB_ID))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testDownloadExport_NotFinished() throws Exception {
+        // GIVEN
+        when(exportJobService.getJob(JOB_ID)).thenReturn(createJob(ExportJobStatus.RUNNING, null));
+
+        // WHEN
+        mockMvc.perform(get("/exports/" + JOB_ID + "/file"))
+                .andExpect(status().isConflict());
+
+        // THEN
+        verify(exportJobService, never()).getResultFile(JOB_ID);
+    }
+
+    @Test
+    void testDownloadExport() throws Exception {
+        // GIVEN
+        byte[] data = "[{\"priceHistoryId\":1}]".getBytes(StandardCharsets.UTF_8);
+        Path file = Files.write(directory.resolve("price_history.json"), data);
+        ExportJobDTO job = createJob(ExportJobStatus.COMPLETED, 1L);
+        job.setFormat(ExportFormat.JSON);
+        job.setCompression(CompressionType.NONE);
+        job.setFileName("price_history.json");
+        when(exportJobService.getJob(JOB_ID)).thenReturn(job);
+        when(exportJobService.getResultFile(JOB_ID)).thenReturn(file);
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(get("/exports/" + JOB_ID + "/file"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"price_history.json\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, data.length))
+                .andExpect(content().contentType("application/json"))
+                .andExpect(content().bytes(data));
+    }
+
+    private static ExportJobDTO createJob(ExportJobStatus status, Long rowCount) {
+        return new ExportJobDTO(JOB_ID, ExportTable.PRICE_HISTORY, ExportFormat.ARROW, CompressionType.ZSTD, status,
+                "price_history.arrows.zst", rowCount, 0L, null, LocalDateTime.now(), null);
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.controller;
 
+import com.example.advice.GlobalExceptionHandler;
+import com.example.dto.ExportResultDTO;
+import com.example.dto.HistoryComparisonRequestDTO;
 import com.example.dto.HistoryRequestDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.dto.PriceBatchResultDTO;
 import com.example.dto.PriceCreateDTO;
 import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryBucketDTO;
 import com.example.dto.PriceHistoryDTO;
 import com.example.entity.Price;
-import com.example.entity.PriceHistory;
 import com.example.entity.Product;
 import com.example.entity.Store;
-import com.example.mapper.PriceHistoryMapper;
+import com.example.enums.BatchItemStatus;
+import com.example.enums.ChartFormat;
+import com.example.enums.ExportFormat;
+import com.example.enums.HistoryInterval;
+import com.example.exceptions.InvalidRequestParameterException;
 import com.example.mapper.PriceMapper;
 import com.example.service.DataLogService;
 import com.example.service.PriceService;
@@ -27,15 +36,21 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -61,9 +76,6 @@ class PriceControllerTest {
     @Mock
     private DataLogService dataLogService;
 
-    @Mock
-    private PriceHistoryMapper priceHistoryMapper;
-
     @InjectMocks
     private PriceController priceController;
 
@@ -74,7 +86,9 @@ class PriceControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(priceController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(priceController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
         objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
     }
@@ -117,6 +131,54 @@ class PriceControllerTest {
         verify(priceMapper).toDto(price);
     }
 
+    @Test
+    void testCreatePrices() throws Exception {
+        // GIVEN
+        List<PriceCreateDTO> createDTOs = List.of(
+                new PriceCreateDTO(1L, 1L, 100),
+                new PriceCreateDTO(1L, 99L, 150)
+        );
+        List<PriceBatchResultDTO> results = List.of(
+                new PriceBatchResultDTO(0, 1L, 1L, 1L, BatchItemStatus.CREATED, null),
+                new PriceBatchResultDTO(1, 1L, 99L, null, BatchItemStatus.REJECTED, "Магазин с ID 99 не найден")
+        );
+
+        when(priceService.createPrices(anyList())).thenReturn(results);
+
+        // WHEN
+        mockMvc.perform(post("/prices/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDTOs)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].priceId").value(1L))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+
+        // THEN
+        verify(priceService).createPrices(anyList());
+    }
+
+    @Test
+    void testUpsertPrice() throws Exception {
+        // GIVEN
+        PriceCreateDTO upsertDTO = new PriceCreateDTO(1L, 2L, 120);
+        PriceDTO priceDTO = new PriceDTO(5L, 1L, 2L, 120, testTime);
+
+        when(priceService.upsertPrice(1L, 2L, 120)).thenReturn(priceDTO);
+
+        // WHEN
+        mockMvc.perform(put("/prices")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(upsertDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priceId").value(5L))
+                .andExpect(jsonPath("$.price").value(120));
+
+        // THEN
+        verify(priceService).upsertPrice(1L, 2L, 120);
+    }
+
     @Test
     void testGetPriceById() throws Exception {
         // GIVEN
@@ -232,19 +294,12 @@ class PriceControllerTest {
     @Test
     void testGetAllPrices() throws Exception {
         // GIVEN
-        Price price1 = new Price(new Product(), new Store(), 100);
-        price1.setPriceId(1L);
-        Price price2 = new Price(new Product(), new Store(), 200);
-        price2.setPriceId(2L);
-
-        List<Price> prices = List.of(price1, price2);
         List<PriceDTO> priceDTOs = List.of(
                 new PriceDTO(1L, 1L, 1L, 100, testTime),
                 new PriceDTO(2L, 2L, 2L, 200, testTime)
         );
 
-        when(priceService.getAllPrices()).thenReturn(prices);
-        when(priceMapper.toDtoList(prices)).thenReturn(priceDTOs);
+        when(priceService.getAllPrices()).thenReturn(priceDTOs);
 
         // WHEN
         mockMvc.perform(get("/prices"))
@@ -255,7 +310,6 @@ class PriceControllerTest {
 
         // THEN
         verify(priceService).getAllPrices();
-        verify(priceMapper).toDtoList(prices);
     }
 
     @Test
@@ -302,10 +356,6 @@ class PriceControllerTest {
                 LocalDate.now()
         );
 
-        PriceHistory history = new PriceHistory();
-        history.setPrice(100);
-        history.setRecordedAt(LocalDateTime.now());
-
         PriceHistoryDTO historyDTO = new PriceHistoryDTO(1L, 1L, 1L,
                 100, LocalDateTime.now());
 
@@ -314,9 +364,7 @@ class PriceControllerTest {
                 eq(request.getStoreId()),
                 eq(request.getStartDate()),
                 eq(request.getEndDate())
-        )).thenReturn(List.of(history));
-
-        when(priceHistoryMapper.toDto(history)).thenReturn(historyDTO);
+        )).thenReturn(List.of(historyDTO));
 
         // WHEN
         mockMvc.perform(post("/prices/history/{productId}", productId)
@@ -336,6 +384,76 @@ class PriceControllerTest {
     }
 
 
+    @Test
+    void testStreamPriceHistory_Success() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        HistoryRequestDTO request = new HistoryRequestDTO(
+                2L,
+                LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 1, 31)
+        );
+
+        when(priceService.writePriceHistoryAsNdjson(eq(productId), eq(request.getStoreId()),
+                eq(request.getStartDate()), eq(request.getEndDate()), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream outputStream = invocation.getArgument(4);
+                    outputStream.write("{\"price\":100}\n{\"price\":110}\n".getBytes(StandardCharsets.UTF_8));
+                    return 2L;
+                });
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(post("/prices/history/stream/{productId}", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"price\":100}\n{\"price\":110}\n"));
+
+        // THEN
+        verify(priceService).writePriceHistoryAsNdjson(eq(productId), eq(request.getStoreId()),
+                eq(request.getStartDate()), eq(request.getEndDate()), any(OutputStream.class));
+    }
+
+    @Test
+    void testGetPriceHistoryBuckets_Success() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        HistoryRequestDTO request = new HistoryRequestDTO(
+                2L,
+                LocalDate.of(2024, 1, 1),
+                LocalDate.of(2024, 12, 31)
+        );
+
+        PriceHistoryBucketDTO bucket = new PriceHistoryBucketDTO(LocalDateTime.of(2024, 1, 1, 0, 0),
+                90, 120, 100, 110, 105.0, 24L);
+
+        when(priceService.getPriceHistoryBuckets(productId, request.getStoreId(),
+                request.getStartDate(), request.getEndDate(), HistoryInterval.WEEK))
+                .thenReturn(List.of(bucket));
+
+        // WHEN
+        mockMvc.perform(post("/prices/history/buckets/{productId}", productId)
+                        .param("interval", "WEEK")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].minPrice").value(90))
+                .andExpect(jsonPath("$[0].maxPrice").value(120))
+                .andExpect(jsonPath("$[0].firstPrice").value(100))
+                .andExpect(jsonPath("$[0].lastPrice").value(110))
+                .andExpect(jsonPath("$[0].count").value(24));
+
+        // THEN
+        verify(priceService).getPriceHistoryBuckets(productId, request.getStoreId(),
+                request.getStartDate(), request.getEndDate(), HistoryInterval.WEEK);
+    }
+
     @Test
     void testGetPriceHistoryChart_Success() throws Exception {
         // GIVEN
@@ -352,27 +470,132 @@ class PriceControllerTest {
                 eq(productId),
                 eq(request.getStoreId()),
                 eq(request.getStartDate()),
-                eq(request.getEndDate())
-        )).thenReturn(mockChart);
+                eq(request.getEndDate()),
+                eq(800),
+                eq(600),
+                eq(ChartFormat.PNG)
+        )).thenReturn(CompletableFuture.completedFuture(mockChart));
 
         // WHEN & THEN
-        mockMvc.perform(post("/prices/history/chart/{productId}", productId)
+        MvcResult mvcResult = mockMvc.perform(post("/prices/history/chart/{productId}", productId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string("Content-Disposition", "attachment; filename=price_chart.png"))
                 .andExpect(content().contentType(MediaType.IMAGE_PNG))
                 .andExpect(content().bytes(mockChart));
     }
 
+    @Test
+    void testGetPriceHistoryChart_SvgWithCustomSize() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        HistoryRequestDTO request = new HistoryRequestDTO(
+                3L,
+                LocalDate.of(2024, 1, 1),
+                LocalDate.now()
+        );
+
+        byte[] mockChart = "<svg></svg>".getBytes();
+
+        when(priceService.generatePriceHistoryChart(productId, request.getStoreId(),
+                request.getStartDate(), request.getEndDate(), 1200, 400, ChartFormat.SVG))
+                .thenReturn(CompletableFuture.completedFuture(mockChart));
+
+        // WHEN & THEN
+        MvcResult mvcResult = mockMvc.perform(post("/prices/history/chart/{productId}", productId)
+                        .param("width", "1200")
+                        .param("height", "400")
+                        .param("format", "SVG")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=price_chart.svg"))
+                .andExpect(content().contentType("image/svg+xml"))
+                .andExpect(content().bytes(mockChart));
+    }
+
+    @Test
+    void testGetPriceHistoryChart_InvalidSize() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        HistoryRequestDTO request = new HistoryRequestDTO(
+                3L,
+                LocalDate.of(2024, 1, 1),
+                LocalDate.now()
+        );
+
+        when(priceService.generatePriceHistoryChart(productId, request.getStoreId(),
+                request.getStartDate(), request.getEndDate(), 10, 400, ChartFormat.PNG))
+                .thenThrow(new InvalidRequestParameterException("Размер графика 10x400 вне допустимых границ"));
+
+        // WHEN & THEN
+        mockMvc.perform(post("/prices/history/chart/{productId}", productId)
+                        .param("width", "10")
+                        .param("height", "400")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_ARGUMENT"))
+                .andExpect(jsonPath("$.message").value("Размер графика 10x400 вне допустимых границ"));
+    }
+
+    @Test
+    void testGetPriceComparisonChart_Success() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        HistoryComparisonRequestDTO request = new HistoryComparisonRequestDTO(
+                List.of(2L, 3L),
+                LocalDate.of(2024, 1, 1),
+                LocalDate.now()
+        );
+
+        byte[] mockChart = new byte[]{0x00, 0x01, 0x02};
+
+        when(priceService.generatePriceComparisonChart(productId, request.getStoreIds(),
+                request.getStartDate(), request.getEndDate(), 800, 600, ChartFormat.PNG))
+                .thenReturn(CompletableFuture.completedFuture(mockChart));
+
+        // WHEN & THEN
+        MvcResult mvcResult = mockMvc.perform(post("/prices/history/chart/compare/{productId}", productId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=price_comparison_chart.png"))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(content().bytes(mockChart));
+    }
+
     @Test
     void testExportPrices() throws Exception {
         // GIVEN
-        byte[] mockData = "{\"prices\":[]}".getBytes();
-        when(priceService.exportPricesToJson()).thenReturn(mockData);
+        byte[] mockData = "[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8);
+        ExportResultDTO result = new ExportResultDTO("prices", ExportFormat.JSON, 2L, (long) mockData.length, 5L);
+        when(priceService.exportPrices(eq(ExportFormat.JSON), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write(mockData);
+            return result;
+        });
 
         // WHEN
-        mockMvc.perform(get("/prices/export"))
+        MvcResult mvcResult = mockMvc.perform(get("/prices/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"prices.json\""))
@@ -380,14 +603,45 @@ class PriceControllerTest {
                 .andExpect(content().bytes(mockData));
 
         // THEN
-        verify(priceService).exportPricesToJson();
+        verify(dataLogService).logExport(result, null);
+        verify(priceService).exportPrices(eq(ExportFormat.JSON), any(OutputStream.class));
+        verifyNoMoreInteractions(priceService);
+    }
+
+    @Test
+    void testExportPriceHistory_Arrow() throws Exception {
+        // GIVEN
+        byte[] mockData = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF};
+        ExportResultDTO result = new ExportResultDTO("price_history", ExportFormat.ARROW, 3L, 4L, 5L);
+        when(priceService.exportPriceHistory(eq(ExportFormat.ARROW), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(1);
+            outputStream.write(mockData);
+            return result;
+        });
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(get("/prices/history/export").param("format", "ARROW"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"price_history.arrows\""))
+                .andExpect(content().contentType("application/vnd.apache.arrow.stream"))
+                .andExpect(content().bytes(mockData));
+
+        // THEN
+        verify(dataLogService).logExport(result, null);
+        verify(priceService).exportPriceHistory(eq(ExportFormat.ARROW), any(OutputStream.class));
+        verifyNoMoreInteractions(priceService);
     }
 
     @Test
     void testImportPrices() throws Exception {
         // GIVEN
         byte[] jsonData = "[{\"price\":100}]".getBytes();
-        PriceDTO importedPrice = new PriceDTO(1L, 1L, 1L, 100, testTime);
+        ImportResultDTO importResult = new ImportResultDTO(1L, 1L, 0L, 1, List.of());
 
         MockMultipartFile file = new MockMultipartFile(
                 "file",
@@ -395,17 +649,21 @@ class PriceControllerTest {
                 MediaType.APPLICATION_JSON_VALUE,
                 jsonData);
 
-        when(priceService.importPricesFromJson(jsonData))
-                .thenReturn(List.of(importedPrice));
+        when(priceService.importPricesFromJson(any(InputStream.class)))
+                .thenReturn(importResult);
 
         // WHEN
         mockMvc.perform(multipart("/prices/import")
                         .file(file))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].price").value(100));
+                .andExpect(jsonPath("$.totalRecords").value(1))
+                .andExpect(jsonPath("$.importedRecords").value(1))
+                .andExpect(jsonPath("$.failedRecords").value(0))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
 
         // THEN
-        verify(priceService).importPricesFromJson(jsonData);
+        verify(priceService).importPricesFromJson(any(InputStream.class));
+        verify(dataLogService).logOperation("IMPORT", "prices", 1L, null);
     }
 
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package com.example.controller;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.ProductCreateDTO;
 import com.example.dto.ProductDTO;
 import com.example.entity.Category;
 import com.example.entity.Product;
+import com.example.enums.ExportFormat;
 import com.example.mapper.ProductMapper;
 import com.example.service.CategoryService;
 import com.example.service.DataLogService;
@@ -21,8 +24,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -263,11 +270,20 @@ class ProductControllerTest {
     @Test
     void testExportProducts() throws Exception {
         // GIVEN
-        byte[] mockData = "{\"products\":[]}".getBytes();
-        when(productService.exportProductsToJson()).thenReturn(mockData);
+        byte[] mockData = "[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8);
+        ExportResultDTO result = new ExportResultDTO("products", ExportFormat.JSON, 2L, (long) mockData.length, 5L);
+        when(productService.exportProductsToJson(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(mockData);
+            return result;
+        });
 
         // WHEN
-        mockMvc.perform(get("/products/export"))
+        MvcResult mvcResult = mockMvc.perform(get("/products/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"products.json\""))
@@ -275,14 +291,16 @@ class ProductControllerTest {
                 .andExpect(content().bytes(mockData));
 
         // THEN
-        verify(productService).exportProductsToJson();
+        verify(dataLogService).logExport(result, null);
+        verify(productService).exportProductsToJson(any(OutputStream.class));
+        verifyNoMoreInteractions(productService);
     }
 
     @Test
     void testImportProducts() throws Exception {
         // GIVEN
         byte[] jsonData = "[{\"productName\":\"Imported\"}]".getBytes();
-        ProductDTO importedProduct = new ProductDTO(1L, "Imported", 1L, testTime, testTime);
+        ImportResultDTO importResult = new ImportResultDTO(1L, 1L, 0L, 1, List.of());
 
         MockMultipartFile file = new MockMultipartFile(
                 "file",
@@ -290,17 +308,21 @@ class ProductControllerTest {
                 MediaType.APPLICATION_JSON_VALUE,
                 jsonData);
 
-        when(productService.importProductsFromJson(jsonData))
-                .thenReturn(List.of(importedProduct));
+        when(productService.importProductsFromJson(any(InputStream.class)))
+                .thenReturn(importResult);
 
         // WHEN
         mockMvc.perform(multipart("/products/import")
                         .file(file))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].productName").value("Imported"));
+                .andExpect(jsonPath("$.totalRecords").value(1))
+                .andExpect(jsonPath("$.importedRecords").value(1))
+                .andExpect(jsonPath("$.failedRecords").value(0))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
 
         // THEN
-        verify(productService).importProductsFromJson(jsonData);
+        verify(productService).importProductsFromJson(any(InputStream.class));
+        verify(dataLogService).logOperation("IMPORT", "products", 1L, null);
     }
 
     @Test
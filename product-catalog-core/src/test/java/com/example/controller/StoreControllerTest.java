@@ -1,11 +1,18 @@
 package com.example.controller;
 
 import com.example.advice.GlobalExceptionHandler;
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.StoreCreateDTO;
 import com.example.dto.StoreDTO;
 import com.example.entity.Store;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportTable;
+import com.example.exceptions.DeltaCursorExpiredException;
 import com.example.mapper.StoreMapper;
 import com.example.service.DataLogService;
+import com.example.service.DeltaExportService;
 import com.example.service.StoreService;
 import com.example.service.security.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,10 +27,18 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +61,9 @@ class StoreControllerTest {
     @Mock
     private StoreMapper storeMapper;
 
+    @Mock
+    private DeltaExportService deltaExportService;
+
     @InjectMocks
     private StoreController storeController;
 
@@ -236,11 +254,20 @@ class StoreControllerTest {
     @Test
     void testExportStores() throws Exception {
         // GIVEN
-        byte[] mockData = "{\"stores\":[]}".getBytes();
-        when(storeService.exportStoresToJson()).thenReturn(mockData);
+        byte[] mockData = "[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8);
+        ExportResultDTO result = new ExportResultDTO("stores", ExportFormat.JSON, 2L, (long) mockData.length, 5L);
+        when(storeService.exportStoresToJson(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(mockData);
+            return result;
+        });
 
         // WHEN
-        mockMvc.perform(get("/stores/export"))
+        MvcResult mvcResult = mockMvc.perform(get("/stores/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"stores.json\""))
@@ -248,14 +275,112 @@ class StoreControllerTest {
                 .andExpect(content().bytes(mockData));
 
         // THEN
-        verify(storeService).exportStoresToJson();
+        verify(dataLogService).logExport(result, null);
+        verify(storeService).exportStoresToJson(any(OutputStream.class));
+        verifyNoMoreInteractions(storeService);
+    }
+
+    @Test
+    void testExportStores_GzipByAcceptEncoding() throws Exception {
+        // GIVEN
+        byte[] mockData = "[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8);
+        ExportResultDTO result = new ExportResultDTO("stores", ExportFormat.JSON, 2L, (long) mockData.length, 5L);
+        when(storeService.exportStoresToJson(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(mockData);
+            return result;
+        });
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(get("/stores/export")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"stores.json\""))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // THEN
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertArrayEquals(mockData, inputStream.readAllBytes());
+        }
+        verify(dataLogService).logExport(result, null);
+    }
+
+    @Test
+    void testExportStores_ZstdFileByParameter() throws Exception {
+        // GIVEN
+        when(storeService.exportStoresToJson(any(OutputStream.class)))
+                .thenReturn(new ExportResultDTO("stores", ExportFormat.JSON, 0L, 0L, 0L));
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(get("/stores/export").param("compression", "ZSTD"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"stores.json.zst\""))
+                .andExpect(content().contentType("application/zstd"));
+    }
+
+    @Test
+    void testExportStoresDelta() throws Exception {
+        // GIVEN
+        LocalDateTime since = LocalDateTime.of(2025, 6, 1, 10, 0);
+        DeltaWindowDTO window = new DeltaWindowDTO(since, since.plusHours(1), "cursor");
+        byte[] mockData = "{\"cursor\":\"cursor\",\"changed\":[],\"deleted\":[5]}".getBytes(StandardCharsets.UTF_8);
+        ExportResultDTO result = new ExportResultDTO("stores", ExportFormat.JSON, 1L, (long) mockData.length, 5L);
+        when(deltaExportService.openWindow(since, null)).thenReturn(window);
+        when(deltaExportService.exportDelta(eq(ExportTable.STORES), eq(window), any(OutputStream.class)))
+                .thenAnswer(invocation -> {
+                    OutputStream outputStream = invocation.getArgument(2);
+                    outputStream.write(mockData);
+                    return result;
+                });
+
+        // WHEN
+        MvcResult mvcResult = mockMvc.perform(get("/stores/export/delta").param("since", "2025-06-01T10:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"stores-delta.json\""))
+                .andExpect(content().bytes(mockData));
+
+        // THEN
+        verify(dataLogService).logExport(result, null);
+        verifyNoInteractions(storeService);
+    }
+
+    @Test
+    void testExportStoresDelta_CursorExpired() throws Exception {
+        // GIVEN
+        LocalDateTime since = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(deltaExportService.openWindow(since, null))
+                .thenThrow(new DeltaCursorExpiredException(since, since.plusDays(30)));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/stores/export/delta").param("since", "2025-01-01T00:00:00"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error").value("DELTA_CURSOR_EXPIRED"));
     }
 
     @Test
     void testImportStores() throws Exception {
         // GIVEN
         byte[] jsonData = "[{\"storeName\":\"Imported Store\"}]".getBytes();
-        StoreDTO importedStore = new StoreDTO(1L, "Imported Store", "Address", testTime, testTime);
+        ImportResultDTO importResult = new ImportResultDTO(1L, 1L, 0L, 1, List.of());
 
         MockMultipartFile file = new MockMultipartFile(
                 "file",
@@ -263,17 +388,51 @@ class StoreControllerTest {
                 MediaType.APPLICATION_JSON_VALUE,
                 jsonData);
 
-        when(storeService.importStoresFromJson(jsonData))
-                .thenReturn(List.of(importedStore));
+        when(storeService.importStoresFromJson(any(InputStream.class)))
+                .thenReturn(importResult);
+
+        // WHEN
+        mockMvc.perform(multipart("/stores/import")
+                        .file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRecords").value(1))
+                .andExpect(jsonPath("$.importedRecords").value(1))
+                .andExpect(jsonPath("$.failedRecords").value(0))
+                .andExpect(jsonPath("$.errors", hasSize(0)));
+
+        // THEN
+        verify(storeService).importStoresFromJson(any(InputStream.class));
+        verify(dataLogService).logOperation("IMPORT", "stores", 1L, null);
+    }
+
+    @Test
+    void testImportStores_GzipUpload() throws Exception {
+        // GIVEN
+        byte[] jsonData = "[{\"storeName\":\"Imported Store\"}]".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(jsonData);
+        }
+        MockMultipartFile file = new MockMultipartFile(
+                "file",
+                "stores.json.gz",
+                "application/gzip",
+                compressed.toByteArray());
+
+        when(storeService.importStoresFromJson(any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream inputStream = invocation.getArgument(0);
+            assertArrayEquals(jsonData, inputStream.readAllBytes());
+            return new ImportResultDTO(1L, 1L, 0L, 1, List.of());
+        });
 
         // WHEN
         mockMvc.perform(multipart("/stores/import")
                         .file(file))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].storeName").value("Imported Store"));
+                .andExpect(jsonPath("$.importedRecords").value(1));
 
         // THEN
-        verify(storeService).importStoresFromJson(jsonData);
+        verify(dataLogService).logOperation("IMPORT", "stores", 1L, null);
     }
 
     @Test
@@ -0,0 +1,88 @@
+package com.example.filter;
+
+import com.example.dto.TokenClaimsDTO;
+import com.example.exceptions.InvalidTokenException;
+import com.example.service.security.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDoFilter_ParsesTokenOnce() throws Exception {
+        // GIVEN
+        TokenClaimsDTO claims = new TokenClaimsDTO("testUser", 1L, List.of("ROLE_USER"),
+                Instant.now().plusSeconds(60), 0);
+        UserDetails userDetails = new User("testUser", "password",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(userService.parseToken("token")).thenReturn(claims);
+        when(userService.loadUserFromToken(claims)).thenReturn(userDetails);
+        when(userService.validateToken(claims, userDetails)).thenReturn(true);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // WHEN
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+
+        // THEN
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals(userDetails, authentication.getPrincipal());
+        assertNotNull(filterChain.getRequest());
+        verify(userService).parseToken("token");
+        verify(userService).loadUserFromToken(claims);
+        verify(userService).validateToken(claims, userDetails);
+        verifyNoMoreInteractions(userService);
+    }
+
+    @Test
+    void testDoFilter_InvalidToken() throws Exception {
+        // GIVEN
+        when(userService.parseToken("token")).thenThrow(new InvalidTokenException("Невалидный токен", null));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain();
+
+        // WHEN
+        jwtAuthenticationFilter.doFilter(request, response, filterChain);
+
+        // THEN
+        assertEquals(401, response.getStatus());
+        assertNull(filterChain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
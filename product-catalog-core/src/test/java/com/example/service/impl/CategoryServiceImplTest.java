@@ -1,9 +1,12 @@
 package com.example.service.impl;
 
 import com.example.dto.CategoryDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.entity.Category;
 import com.example.mapper.CategoryMapper;
 import com.example.repository.CategoryRepository;
+import com.example.utils.ChunkedJsonImporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,14 +14,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,7 +49,10 @@ class CategoryServiceImplTest {
     @BeforeEach
     void setUp() {
         ObjectMapper objectMapper = new ObjectMapper();
-        categoryService = new CategoryServiceImpl(categoryRepository, categoryMapper, objectMapper);
+        ChunkedJsonImporter chunkedJsonImporter = new ChunkedJsonImporter(objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100);
+        categoryService = new CategoryServiceImpl(categoryRepository, categoryMapper, objectMapper,
+                chunkedJsonImporter);
     }
 
     @Test
@@ -111,21 +127,29 @@ class CategoryServiceImplTest {
     }
 
     @Test
-    void testExportCategoriesToJson() {
+    void testExportCategoriesToJson() throws IOException {
         // GIVEN
-        Category category = new Category("Test Category", null);
-        when(categoryRepository.findAllWithSubCategories()).thenReturn(List.of(category));
+        CategoryDTO category = new CategoryDTO(1L, "Test Category", null, null, null);
+        when(categoryRepository.streamAllAsDto()).thenReturn(Stream.of(category));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         // WHEN
-        byte[] result = categoryService.exportCategoriesToJson();
+        ExportResultDTO result = categoryService.exportCategoriesToJson(outputStream);
 
         // THEN
-        assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertEquals("categories", result.getTableName());
+        assertEquals(1L, result.getRowCount());
+        assertEquals(outputStream.size(), result.getBytesWritten());
+        String json = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.contains("\"categoryName\":\"Test Category\""));
+        assertTrue(json.endsWith("}]"));
+        verify(categoryRepository).streamAllAsDto();
+        verifyNoMoreInteractions(categoryRepository);
     }
 
     @Test
-    void testImportCategoriesFromJson() {
+    void testImportCategoriesFromJson() throws IOException {
         // GIVEN
         String jsonData = "[{\"categoryName\":\"Category\", \"parentId\": null}]";
         byte[] data = jsonData.getBytes();
@@ -136,12 +160,15 @@ class CategoryServiceImplTest {
         when(categoryMapper.toEntityList(anyList())).thenReturn(List.of(category));
 
         // WHEN
-        List<CategoryDTO> result = categoryService.importCategoriesFromJson(data);
+        ImportResultDTO result = categoryService.importCategoriesFromJson(new ByteArrayInputStream(data));
 
         // THEN
-        assertEquals(1, result.size());
-        assertNull(result.get(0).getParentId());
-        assertEquals("Category", result.get(0).getCategoryName());
+        assertEquals(1, result.getTotalRecords());
+        assertEquals(1, result.getImportedRecords());
+        assertTrue(result.getErrors().isEmpty());
+        verify(categoryMapper).toEntityList(argThat(dtos -> dtos.size() == 1
+                && "Category".equals(dtos.get(0).getCategoryName())
+                && dtos.get(0).getParentId() == null));
         verify(categoryRepository).saveAll(anyList());
     }
 }
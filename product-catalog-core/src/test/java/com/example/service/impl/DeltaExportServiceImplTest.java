@@ -0,0 +1,193 @@
+package com.example.service.impl;
+
+import com.example.dto.DeltaWindowDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.dto.StoreDTO;
+import com.example.enums.ExportTable;
+import com.example.exceptions.DeltaCursorExpiredException;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.repository.CategoryRepository;
+import com.example.repository.DeletedRowRepository;
+import com.example.repository.PriceRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.StoreRepository;
+import com.example.utils.DeltaCursor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeltaExportServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
+    @Mock
+    private PriceRepository priceRepository;
+
+    @Mock
+    private DeletedRowRepository deletedRowRepository;
+
+    private ObjectMapper objectMapper;
+
+    private DeltaExportServiceImpl deltaExportService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        deltaExportService = new DeltaExportServiceImpl(categoryRepository, productRepository, storeRepository,
+                priceRepository, deletedRowRepository, objectMapper, 30, 7);
+    }
+
+    @Test
+    void testOpenWindow_FromCursor() {
+        // GIVEN
+        LocalDateTime previous = NOW.minusHours(1);
+        when(deletedRowRepository.currentTimestamp()).thenReturn(NOW);
+
+        // WHEN
+        DeltaWindowDTO window = deltaExportService.openWindow(null, DeltaCursor.encode(previous));
+
+        // THEN
+        assertEquals(previous, window.getFrom());
+        assertEquals(NOW.minusSeconds(30), window.getTo());
+        assertEquals(NOW.minusSeconds(30), DeltaCursor.decode(window.getCursor()));
+    }
+
+    @Test
+    void testOpenWindow_WithoutParametersStartsFullExport() {
+        // GIVEN
+        when(deletedRowRepository.currentTimestamp()).thenReturn(NOW);
+
+        // WHEN
+        DeltaWindowDTO window = deltaExportService.openWindow(null, null);
+
+        // THEN
+        assertNull(window.getFrom());
+        assertEquals(NOW.minusSeconds(30), window.getTo());
+    }
+
+    @Test
+    void testOpenWindow_SinceInsideSafetyLag() {
+        // GIVEN
+        LocalDateTime since = NOW.minusSeconds(10);
+        when(deletedRowRepository.currentTimestamp()).thenReturn(NOW);
+
+        // WHEN
+        DeltaWindowDTO window = deltaExportService.openWindow(since, null);
+
+        // THEN
+        assertEquals(since, window.getFrom());
+        assertEquals(since, window.getTo());
+    }
+
+    @Test
+    void testOpenWindow_TombstonesExpired() {
+        // GIVEN
+        when(deletedRowRepository.currentTimestamp()).thenReturn(NOW);
+
+        // WHEN & THEN
+        assertThrows(DeltaCursorExpiredException.class,
+                () -> deltaExportService.openWindow(NOW.minusDays(8), null));
+    }
+
+    @Test
+    void testOpenWindow_SinceAndCursor() {
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class,
+                () -> deltaExportService.openWindow(NOW, DeltaCursor.encode(NOW)));
+        verify(deletedRowRepository, never()).currentTimestamp();
+    }
+
+    @Test
+    void testExportDelta_WritesChangedAndDeletedRows() throws Exception {
+        // GIVEN
+        LocalDateTime from = NOW.minusHours(1);
+        LocalDateTime to = NOW.minusSeconds(30);
+        DeltaWindowDTO window = new DeltaWindowDTO(from, to, DeltaCursor.encode(to));
+        StoreDTO store = new StoreDTO(1L, "Store", "Address", null, null);
+        when(storeRepository.streamChangedAsDto(from, to)).thenReturn(Stream.of(store));
+        when(deletedRowRepository.streamDeletedIds("stores", from, to)).thenReturn(Stream.of(7L, 8L));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        ExportResultDTO result = deltaExportService.exportDelta(ExportTable.STORES, window, outputStream);
+
+        // THEN
+        assertEquals("stores", result.getTableName());
+        assertEquals(3L, result.getRowCount());
+        assertEquals(outputStream.size(), result.getBytesWritten());
+        JsonNode json = objectMapper.readTree(outputStream.toByteArray());
+        assertEquals(window.getCursor(), json.get("cursor").asText());
+        assertEquals("Store", json.get("changed").get(0).get("storeName").asText());
+        assertEquals(2, json.get("deleted").size());
+        assertEquals(7L, json.get("deleted").get(0).asLong());
+        verify(storeRepository).streamChangedAsDto(from, to);
+        verifyNoMoreInteractions(storeRepository);
+    }
+
+    @Test
+    void testExportDelta_FullExportWithoutTombstones() throws Exception {
+        // GIVEN
+        DeltaWindowDTO window = new DeltaWindowDTO(null, NOW, DeltaCursor.encode(NOW));
+        when(storeRepository.streamAllAsDto()).thenReturn(Stream.of(new StoreDTO(1L, "Store", null, null, null)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        ExportResultDTO result = deltaExportService.exportDelta(ExportTable.STORES, window, outputStream);
+
+        // THEN
+        assertEquals(1L, result.getRowCount());
+        assertEquals(0, objectMapper.readTree(outputStream.toByteArray()).get("deleted").size());
+        verify(deletedRowRepository, never()).streamDeletedIds(any(), any(), any());
+    }
+
+    @Test
+    void testExportDelta_PriceHistoryNotSupported() {
+        // GIVEN
+        DeltaWindowDTO window = new DeltaWindowDTO(null, NOW, DeltaCursor.encode(NOW));
+
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class, () -> deltaExportService.exportDelta(ExportTable.PRICE_HISTORY,
+                window, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void testDeleteExpiredTombstones() {
+        // GIVEN
+        when(deletedRowRepository.currentTimestamp()).thenReturn(NOW);
+
+        // WHEN
+        deltaExportService.deleteExpiredTombstones();
+
+        // THEN
+        verify(deletedRowRepository).deleteByDeletedAtBefore(NOW.minusDays(7));
+    }
+}
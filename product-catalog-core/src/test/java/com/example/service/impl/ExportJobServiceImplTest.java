@@ -0,0 +1,188 @@
+package com.example.service.impl;
+
+import com.example.dto.ExportJobDTO;
+import com.example.dto.ExportResultDTO;
+import com.example.enums.CompressionType;
+import com.example.enums.ExportFormat;
+import com.example.enums.ExportJobStatus;
+import com.example.enums.ExportTable;
+import com.example.exceptions.ExportJobNotFoundException;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.service.CategoryService;
+import com.example.service.DataLogService;
+import com.example.service.PriceService;
+import com.example.service.ProductService;
+import com.example.service.StoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportJobServiceImplTest {
+
+    private static final byte[] DATA = "[{\"storeName\":\"Store\"}]".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private StoreService storeService;
+
+    @Mock
+    private PriceService priceService;
+
+    @Mock
+    private DataLogService dataLogService;
+
+    @TempDir
+    private Path directory;
+
+    private ExportJobServiceImpl exportJobService;
+
+    @BeforeEach
+    void setUp() {
+        exportJobService = new ExportJobServiceImpl(categoryService, productService, storeService, priceService,
+                dataLogService, directory.toString(), 1, 1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportJobService.shutdown();
+    }
+
+    @Test
+    void testDeleteOrphanedFiles_RemovesLeftoversOfPreviousRun() throws IOException {
+        // GIVEN
+        Path partFile = Files.writeString(directory.resolve("job-1.part"), "partial");
+        Path expiredFile = Files.writeString(directory.resolve("job-2-stores.json"), "[]");
+        Files.setLastModifiedTime(expiredFile, FileTime.from(Instant.now().minus(Duration.ofMinutes(61))));
+        Path recentFile = Files.writeString(directory.resolve("job-3-stores.json"), "[]");
+
+        // WHEN
+        exportJobService.deleteOrphanedFiles();
+
+        // THEN
+        assertFalse(Files.exists(partFile));
+        assertFalse(Files.exists(expiredFile));
+        assertTrue(Files.exists(recentFile));
+    }
+
+    @Test
+    void testStartExport_WritesFileAndLogsRowCount() throws Exception {
+        // GIVEN
+        ExportResultDTO result = new ExportResultDTO("stores", ExportFormat.JSON, 1L, (long) DATA.length, 5L);
+        when(storeService.exportStoresToJson(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(DATA);
+            return result;
+        });
+
+        // WHEN
+        ExportJobDTO started = exportJobService.startExport(ExportTable.STORES, ExportFormat.JSON,
+                CompressionType.GZIP, null);
+
+        // THEN
+        assertEquals("stores.json.gz", started.getFileName());
+        verify(dataLogService, timeout(2000)).logExport(result, null);
+        ExportJobDTO job = exportJobService.getJob(started.getJobId());
+        assertEquals(ExportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(1L, job.getRowCount());
+
+        Path file = exportJobService.getResultFile(started.getJobId());
+        assertEquals(Files.size(file), job.getBytesWritten());
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            assertArrayEquals(DATA, inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void testStartExport_FailedJobRemovesPartialFile() throws Exception {
+        // GIVEN
+        when(priceService.exportPrices(eq(ExportFormat.ARROW), any(OutputStream.class)))
+                .thenThrow(new IOException("disk full"));
+
+        // WHEN
+        ExportJobDTO started = exportJobService.startExport(ExportTable.PRICES, ExportFormat.ARROW,
+                CompressionType.NONE, null);
+
+        // THEN
+        ExportJobDTO job = awaitFinished(started.getJobId());
+        assertEquals(ExportJobStatus.FAILED, job.getStatus());
+        assertEquals("disk full", job.getError());
+        assertThrows(ExportJobNotFoundException.class, () -> exportJobService.getResultFile(started.getJobId()));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+        verify(dataLogService, never()).logExport(any(), any());
+    }
+
+    @Test
+    void testStartExport_ArrowOnlyForPrices() {
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class, () -> exportJobService.startExport(ExportTable.STORES,
+                ExportFormat.ARROW, CompressionType.NONE, null));
+    }
+
+    @Test
+    void testDeleteExpiredJobs_RemovesFinishedJobAndFile() throws Exception {
+        // GIVEN
+        exportJobService.shutdown();
+        exportJobService = new ExportJobServiceImpl(categoryService, productService, storeService, priceService,
+                dataLogService, directory.toString(), 1, 1, 0);
+        ExportResultDTO result = new ExportResultDTO("categories", ExportFormat.JSON, 0L, 2L, 0L);
+        when(categoryService.exportCategoriesToJson(any(OutputStream.class))).thenReturn(result);
+        ExportJobDTO started = exportJobService.startExport(ExportTable.CATEGORIES, ExportFormat.JSON,
+                CompressionType.NONE, null);
+        verify(dataLogService, timeout(2000)).logExport(result, null);
+        Path file = exportJobService.getResultFile(started.getJobId());
+
+        // WHEN
+        exportJobService.deleteExpiredJobs();
+
+        // THEN
+        assertFalse(Files.exists(file));
+        assertThrows(ExportJobNotFoundException.class, () -> exportJobService.getJob(started.getJobId()));
+    }
+
+    private ExportJobDTO awaitFinished(String jobId) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            ExportJobDTO job = exportJobService.getJob(jobId);
+            if (job.getStatus() == ExportJobStatus.COMPLETED || job.getStatus() == ExportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Выгрузка " + jobId + " не завершилась");
+    }
+}
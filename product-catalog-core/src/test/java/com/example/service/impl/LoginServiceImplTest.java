@@ -0,0 +1,106 @@
+package com.example.service.impl;
+
+import com.example.exceptions.LoginOverloadedException;
+import com.example.service.security.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LoginServiceImplTest {
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private UserService userService;
+
+    private MeterRegistry meterRegistry;
+    private LoginServiceImpl loginService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginService = new LoginServiceImpl(authenticationManager, userService, meterRegistry, 1, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loginService.shutdown();
+    }
+
+    @Test
+    void testLogin_ReturnsToken() throws Exception {
+        // GIVEN
+        UserDetails userDetails = new User("testUser", "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        Authentication authentication =
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        when(authenticationManager.authenticate(any())).thenReturn(authentication);
+        when(userService.generateToken(userDetails)).thenReturn("token");
+
+        // WHEN
+        String token = loginService.login("testUser", "password").get();
+
+        // THEN
+        assertEquals("token", token);
+    }
+
+    @Test
+    void testLogin_BadCredentials() {
+        // GIVEN
+        when(authenticationManager.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // WHEN
+        CompletableFuture<String> result = loginService.login("testUser", "wrong");
+
+        // THEN
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(BadCredentialsException.class, exception.getCause());
+    }
+
+    @Test
+    void testLogin_RejectedWhenQueueIsFull() throws Exception {
+        // GIVEN
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(authenticationManager.authenticate(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            throw new BadCredentialsException("Bad credentials");
+        });
+        CompletableFuture<String> running = loginService.login("first", "password");
+        started.await();
+        CompletableFuture<String> queued = loginService.login("second", "password");
+
+        // WHEN & THEN
+        assertThrows(LoginOverloadedException.class, () -> loginService.login("third", "password"));
+        assertEquals(1.0, meterRegistry.counter("auth.login.rejected").count());
+
+        release.countDown();
+        assertThrows(ExecutionException.class, running::get);
+        assertThrows(ExecutionException.class, queued::get);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.service.impl;
+
+import com.example.entity.PriceHistory;
+import com.example.entity.Product;
+import com.example.entity.Store;
+import com.example.event.PriceHistoryAppendedEvent;
+import com.example.repository.PriceHistoryRepository;
+import com.example.utils.AppendOnlySpool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryWriterImplTest {
+
+    @Mock
+    private PriceHistoryRepository priceHistoryRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    private Path spoolDirectory;
+
+    @Test
+    void testAppend_WriteBehindDisabled() {
+        // GIVEN
+        PriceHistoryWriterImpl writer = createWriter(false);
+        PriceHistory priceHistory = createPriceHistory(100);
+
+        // WHEN
+        writer.append(priceHistory);
+
+        // THEN
+        verify(priceHistoryRepository).saveAll(List.of(priceHistory));
+        verify(eventPublisher).publishEvent(new PriceHistoryAppendedEvent(1L, 2L));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testAppendAll_WriteBehindFlushesBatch() throws Exception {
+        // GIVEN
+        PriceHistoryWriterImpl writer = createWriter(true);
+        writer.start();
+
+        // WHEN
+        writer.appendAll(List.of(createPriceHistory(100), createPriceHistory(200)));
+
+        // THEN
+        verify(jdbcTemplate, timeout(2000)).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(priceHistoryRepository, never()).saveAll(anyList());
+
+        writer.stop();
+        verify(eventPublisher, atLeastOnce()).publishEvent(new PriceHistoryAppendedEvent(1L, 2L));
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testAppendAll_QueueOverflowInsertsBatchDirectly() throws Exception {
+        // GIVEN
+        PriceHistoryWriterImpl writer = createWriter(true, 1);
+        writer.start();
+
+        // WHEN
+        writer.appendAll(List.of(createPriceHistory(100), createPriceHistory(200)));
+
+        // THEN
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((List<?> records) -> records.size() == 2), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(eventPublisher).publishEvent(new PriceHistoryAppendedEvent(1L, 2L));
+
+        writer.stop();
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testStart_ReplaysSpool() throws Exception {
+        // GIVEN
+        try (AppendOnlySpool spool = new AppendOnlySpool(spoolDirectory, 1024)) {
+            spool.append("1;2;300;2024-01-01T10:00");
+            spool.append("1;2;310;2024-01-01T11:00");
+        }
+        PriceHistoryWriterImpl writer = createWriter(true);
+
+        // WHEN
+        writer.start();
+        writer.stop();
+
+        // THEN
+        verify(jdbcTemplate).batchUpdate(contains("WHERE NOT EXISTS"), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertTrue(files.findAny().isEmpty());
+        }
+    }
+
+    @Test
+    void testStart_QuarantinesSegmentThatFailsToReplay() throws Exception {
+        // GIVEN
+        try (AppendOnlySpool spool = new AppendOnlySpool(spoolDirectory, 1024)) {
+            spool.append("1;2;300;2024-01-01T10:00");
+        }
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        PriceHistoryWriterImpl writer = createWriter(true);
+
+        // WHEN
+        writer.start();
+        writer.stop();
+
+        // THEN
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(List.of("segment-00000000000000000000.spool.quarantined"),
+                    files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    private PriceHistoryWriterImpl createWriter(boolean writeBehindEnabled) {
+        return createWriter(writeBehindEnabled, 100);
+    }
+
+    private PriceHistoryWriterImpl createWriter(boolean writeBehindEnabled, int queueCapacity) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new PriceHistoryWriterImpl(priceHistoryRepository, jdbcTemplate, transactionTemplate, eventPublisher,
+                writeBehindEnabled, queueCapacity, 10, 20, 100, 2000, spoolDirectory.toString(), 1024, true);
+    }
+
+    private static PriceHistory createPriceHistory(int price) {
+        Product product = new Product();
+        product.setProductId(1L);
+        Store store = new Store();
+        store.setStoreId(2L);
+        return new PriceHistory(product, store, price);
+    }
+}
@@ -1,15 +1,40 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.dto.PriceBatchResultDTO;
+import com.example.dto.PriceCreateDTO;
+import com.example.enums.BatchItemStatus;
+import com.example.enums.ChartFormat;
+import com.example.enums.ExportFormat;
+import com.example.enums.HistoryInterval;
+import com.example.event.PriceHistoryAppendedEvent;
+import com.example.exceptions.InvalidRequestParameterException;
 import com.example.repository.PriceHistoryRepository;
 import com.example.repository.PriceRepository;
+import com.example.repository.ProductRepository;
+import com.example.repository.StoreRepository;
+import com.example.repository.projection.PriceHistoryBucket;
+import com.example.repository.projection.PriceUpsertResult;
+import com.example.utils.ChartCache;
+import com.example.utils.ChartCache.ChartKey;
 import com.example.utils.ChartGenerator;
+import com.example.utils.ChartRenderPool;
 import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryBucketDTO;
+import com.example.dto.PriceHistoryDTO;
 import com.example.entity.Price;
 import com.example.entity.PriceHistory;
 import com.example.entity.Product;
 import com.example.entity.Store;
 import com.example.mapper.PriceMapper;
+import com.example.service.PriceHistoryWriter;
+import com.example.utils.ChunkedJsonImporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,16 +42,27 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,18 +74,41 @@ class PriceServiceImplTest {
     @Mock
     private PriceHistoryRepository priceHistoryRepository;
 
+    @Mock
+    private PriceHistoryWriter priceHistoryWriter;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StoreRepository storeRepository;
+
     @Mock
     private PriceMapper priceMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PriceServiceImpl priceService;
 
+    private MeterRegistry meterRegistry;
+    private ChartCache chartCache;
+
     @BeforeEach
     void setUp() {
-        ObjectMapper objectMapper = new ObjectMapper();
+        // Как в JacksonConfig: PriceDTO и PriceHistoryDTO содержат LocalDateTime
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        ChunkedJsonImporter chunkedJsonImporter = new ChunkedJsonImporter(objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100);
         ChartGenerator chartGenerator = new ChartGenerator();
-        priceService = new PriceServiceImpl(priceRepository, priceHistoryRepository, chartGenerator,
-                priceMapper, objectMapper);
+        meterRegistry = new SimpleMeterRegistry();
+        chartCache = new ChartCache(1024 * 1024);
+        priceService = new PriceServiceImpl(priceRepository, priceHistoryRepository, priceHistoryWriter,
+                productRepository, storeRepository, chartGenerator, chartCache, new ChartRenderPool(1, 10),
+                priceMapper, objectMapper, chunkedJsonImporter, meterRegistry, eventPublisher);
     }
 
     @Test
@@ -77,6 +136,51 @@ class PriceServiceImplTest {
         verify(priceRepository).save(price);
     }
 
+    @Test
+    void testCreatePrices() {
+        // GIVEN
+        Product product = new Product();
+        product.setProductId(1L);
+
+        Store store1 = new Store();
+        store1.setStoreId(1L);
+        Store store2 = new Store();
+        store2.setStoreId(2L);
+
+        Price existing = new Price(product, store2, 90);
+
+        List<PriceCreateDTO> createDTOs = List.of(
+                new PriceCreateDTO(1L, 1L, 100),
+                new PriceCreateDTO(1L, 2L, 200),
+                new PriceCreateDTO(2L, 1L, 50),
+                new PriceCreateDTO(1L, 1L, 300)
+        );
+
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+        when(storeRepository.findAllById(any())).thenReturn(List.of(store1, store2));
+        when(priceRepository.findByProductIdsAndStoreIds(any(), any())).thenReturn(List.of(existing));
+        when(priceRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Price> prices = invocation.getArgument(0);
+            prices.forEach(price -> price.setPriceId(10L));
+            return prices;
+        });
+
+        // WHEN
+        List<PriceBatchResultDTO> result = priceService.createPrices(createDTOs);
+
+        // THEN
+        assertEquals(4, result.size());
+        assertEquals(BatchItemStatus.CREATED, result.get(0).getStatus());
+        assertEquals(10L, result.get(0).getPriceId());
+        assertEquals(BatchItemStatus.REJECTED, result.get(1).getStatus());
+        assertEquals(BatchItemStatus.REJECTED, result.get(2).getStatus());
+        assertEquals(BatchItemStatus.REJECTED, result.get(3).getStatus());
+        verify(productRepository).findAllById(any());
+        verify(storeRepository).findAllById(any());
+        verify(priceRepository).saveAll(anyList());
+        verify(priceHistoryWriter).appendAll(anyList());
+    }
+
     @Test
     void testGetPriceById() {
         // GIVEN
@@ -120,10 +224,76 @@ class PriceServiceImplTest {
         priceService.updatePrice(newPrice);
 
         // THEN
-        verify(priceHistoryRepository).save(ArgumentMatchers.any(PriceHistory.class));
+        verify(priceHistoryWriter).append(ArgumentMatchers.any(PriceHistory.class));
         verify(priceRepository).save(newPrice);
     }
 
+    @Test
+    void testUpdatePrice_Unchanged() {
+        // GIVEN
+        Product product = new Product();
+        product.setProductId(1L);
+        Store store = new Store();
+        store.setStoreId(1L);
+
+        Price currentPrice = new Price(product, store, 100);
+        currentPrice.setPriceId(1L);
+
+        Price samePrice = new Price(product, store, 100);
+        samePrice.setPriceId(1L);
+
+        when(priceRepository.findById(1L)).thenReturn(Optional.of(currentPrice));
+
+        // WHEN
+        priceService.updatePrice(samePrice);
+
+        // THEN
+        verify(priceHistoryWriter, never()).append(any(PriceHistory.class));
+        verify(priceRepository, never()).save(any(Price.class));
+        assertEquals(1.0, meterRegistry.counter("prices.writes.suppressed", "path", "update").count());
+    }
+
+    @Test
+    void testUpsertPrice_Unchanged() {
+        // GIVEN
+        PriceUpsertResult upsertResult = mock(PriceUpsertResult.class);
+        when(upsertResult.getChanged()).thenReturn(false);
+        when(upsertResult.getPrice()).thenReturn(120);
+        when(priceRepository.upsertPrice(1L, 2L, 120)).thenReturn(upsertResult);
+
+        // WHEN
+        PriceDTO result = priceService.upsertPrice(1L, 2L, 120);
+
+        // THEN
+        assertEquals(120, result.getPrice());
+        assertEquals(1.0, meterRegistry.counter("prices.writes.suppressed", "path", "upsert").count());
+    }
+
+    @Test
+    void testUpsertPrice() {
+        // GIVEN
+        PriceUpsertResult upsertResult = mock(PriceUpsertResult.class);
+        when(upsertResult.getChanged()).thenReturn(true);
+        when(upsertResult.getPriceId()).thenReturn(5L);
+        when(upsertResult.getPrice()).thenReturn(120);
+        when(priceRepository.upsertPrice(1L, 2L, 120)).thenReturn(upsertResult);
+
+        // WHEN
+        PriceDTO result = priceService.upsertPrice(1L, 2L, 120);
+
+        // THEN
+        assertEquals(5L, result.getPriceId());
+        assertEquals(120, result.getPrice());
+        verify(priceRepository).upsertPrice(1L, 2L, 120);
+        verify(eventPublisher).publishEvent(new PriceHistoryAppendedEvent(1L, 2L));
+    }
+
+    @Test
+    void testUpsertPrice_MissingPrice() {
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class, () -> priceService.upsertPrice(1L, 2L, null));
+    }
+
     @Test
     void testDeletePrice() {
         // GIVEN
@@ -140,48 +310,34 @@ class PriceServiceImplTest {
     @Test
     void testGetAllPrices() {
         // GIVEN
-        Price price1 = new Price();
-        Price price2 = new Price();
-        when(priceRepository.findAllWithProductAndStore()).thenReturn(List.of(price1, price2));
+        PriceDTO price1 = new PriceDTO(1L, 1L, 1L, 100, LocalDateTime.now());
+        PriceDTO price2 = new PriceDTO(2L, 1L, 2L, 200, LocalDateTime.now());
+        when(priceRepository.findAllAsDto()).thenReturn(List.of(price1, price2));
 
         // WHEN
-        List<Price> result = priceService.getAllPrices();
+        List<PriceDTO> result = priceService.getAllPrices();
 
         // THEN
         assertEquals(2, result.size());
-        verify(priceRepository).findAllWithProductAndStore();
+        verify(priceRepository).findAllAsDto();
     }
 
     @Test
     void testGetPricesByProductId() {
         // GIVEN
         Long productId = 1L;
-        Price price = new Price();
-        Product product = new Product();
-        product.setProductName("Test");
-        product.setProductId(1L);
-
-        Store store = new Store();
-        store.setStoreId(1L);
-
-        price.setPriceId(1L);
-        price.setProduct(product);
-        price.setStore(store);
-
-        PriceDTO priceDTO = new PriceDTO();
-        priceDTO.setPriceId(1L);
-        priceDTO.setPrice(price.getPrice());
-        when(priceRepository.findByProduct_ProductId(productId)).thenReturn(List.of(price));
-        when(priceMapper.toDtoList(List.of(price))).thenReturn(List.of(priceDTO));
+        PriceDTO priceDTO = new PriceDTO(1L, productId, 1L, 100, LocalDateTime.now());
+        when(priceRepository.findDtosByProductId(productId)).thenReturn(List.of(priceDTO));
 
         // WHEN
         List<PriceDTO> result = priceService.getPricesByProductId(productId);
 
         // THEN
         assertEquals(1, result.size());
-        assertEquals(price.getPriceId(), result.get(0).getPriceId());
-        assertEquals(price.getPrice(), result.get(0).getPrice());
-        verify(priceRepository).findByProduct_ProductId(productId);
+        assertEquals(priceDTO.getPriceId(), result.get(0).getPriceId());
+        assertEquals(priceDTO.getPrice(), result.get(0).getPrice());
+        verify(priceRepository).findDtosByProductId(productId);
+        verify(priceMapper, never()).toDtoList(anyList());
     }
 
 
@@ -193,13 +349,13 @@ class PriceServiceImplTest {
         LocalDateTime startDateTime = LocalDate.of(2025, 5, 29).atStartOfDay();
         LocalDateTime endDateTime = LocalDate.of(2025, 6, 8)
                 .atTime(23, 59, 59, 999999999);
-        PriceHistory priceHistory = new PriceHistory();
+        PriceHistoryDTO priceHistory = new PriceHistoryDTO(1L, productId, storeId, 100, startDateTime);
 
         when(priceHistoryRepository.findByProductIdAndStoreIdAndDateRange(productId, storeId, startDateTime, endDateTime))
                 .thenReturn(List.of(priceHistory));
 
         // WHEN
-        List<PriceHistory> result = priceService.getPriceHistoryByProductIdAndDataRange(
+        List<PriceHistoryDTO> result = priceService.getPriceHistoryByProductIdAndDataRange(
                 productId, storeId, startDateTime.toLocalDate(), endDateTime.toLocalDate());
 
         // THEN
@@ -208,21 +364,208 @@ class PriceServiceImplTest {
     }
 
     @Test
-    void testExportPricesToJson() {
+    void testWritePriceHistoryAsNdjson() throws Exception {
         // GIVEN
-        Price price = new Price();
-        when(priceRepository.findAllWithProductAndStore()).thenReturn(List.of(price));
+        Long productId = 1L;
+        Long storeId = 2L;
+        LocalDate startDate = LocalDate.of(2025, 6, 1);
+        LocalDate endDate = LocalDate.of(2025, 6, 7);
+        PriceHistoryDTO first = new PriceHistoryDTO(1L, productId, storeId, 100, null);
+        PriceHistoryDTO second = new PriceHistoryDTO(2L, productId, storeId, 110, null);
+
+        when(priceHistoryRepository.streamByProductIdAndStoreIdAndDateRange(productId, storeId,
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)))
+                .thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        long count = priceService.writePriceHistoryAsNdjson(productId, storeId, startDate, endDate, outputStream);
+
+        // THEN
+        assertEquals(2, count);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"priceHistoryId\":1"));
+        assertTrue(lines[1].contains("\"price\":110"));
+    }
+
+    @Test
+    void testGetPriceHistoryBuckets() {
+        // GIVEN
+        Long productId = 1L;
+        Long storeId = 2L;
+        LocalDateTime startDateTime = LocalDate.of(2025, 6, 1).atStartOfDay();
+        LocalDateTime endDateTime = LocalDate.of(2025, 6, 7)
+                .atTime(23, 59, 59, 999999999);
+        PriceHistoryBucket bucket = createBucket();
+
+        when(priceHistoryRepository.findBucketsByProductIdAndStoreIdAndDateRange(
+                productId, storeId, "day", startDateTime, endDateTime))
+                .thenReturn(List.of(bucket));
+
+        // WHEN
+        List<PriceHistoryBucketDTO> result = priceService.getPriceHistoryBuckets(productId, storeId,
+                startDateTime.toLocalDate(), endDateTime.toLocalDate(), HistoryInterval.DAY);
+
+        // THEN
+        assertEquals(1, result.size());
+        assertEquals(90, result.get(0).getMinPrice());
+        assertEquals(120, result.get(0).getMaxPrice());
+        assertEquals(100, result.get(0).getFirstPrice());
+        assertEquals(110, result.get(0).getLastPrice());
+        assertEquals(31L, result.get(0).getCount());
+    }
+
+    @Test
+    void testGetPriceHistoryBuckets_LongRangeUsesDailyRollup() {
+        // GIVEN
+        Long productId = 1L;
+        Long storeId = 2L;
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate endDate = LocalDate.of(2025, 6, 30);
+        PriceHistoryBucket bucket = createBucket();
+
+        when(priceHistoryRepository.findDailyRollupBucketsByProductIdAndStoreIdAndDateRange(
+                productId, storeId, "month", startDate, endDate))
+                .thenReturn(List.of(bucket));
+
+        // WHEN
+        List<PriceHistoryBucketDTO> result = priceService.getPriceHistoryBuckets(productId, storeId,
+                startDate, endDate, HistoryInterval.MONTH);
+
+        // THEN
+        assertEquals(1, result.size());
+        assertEquals(105.0, result.get(0).getAvgPrice());
+        verify(priceHistoryRepository, never()).findBucketsByProductIdAndStoreIdAndDateRange(
+                any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGeneratePriceHistoryChart_RendersAndCaches() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        Long storeId = 2L;
+        LocalDate startDate = LocalDate.of(2025, 6, 1);
+        LocalDate endDate = LocalDate.of(2025, 6, 7);
+        List<PriceHistoryDTO> history = List.of(
+                new PriceHistoryDTO(1L, productId, storeId, 100, LocalDateTime.of(2025, 6, 1, 10, 0)),
+                new PriceHistoryDTO(2L, productId, storeId, 110, LocalDateTime.of(2025, 6, 2, 10, 0)));
+
+        when(priceHistoryRepository.findByProductIdAndStoreIdAndDateRange(productId, storeId,
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)))
+                .thenReturn(history);
+
+        // WHEN
+        byte[] first = priceService.generatePriceHistoryChart(productId, storeId, startDate, endDate,
+                640, 480, ChartFormat.PNG).get();
+        byte[] second = priceService.generatePriceHistoryChart(productId, storeId, startDate, endDate,
+                640, 480, ChartFormat.PNG).get();
+
+        // THEN
+        assertTrue(first.length > 0);
+        assertSame(first, second);
+        assertNotNull(chartCache.get(new ChartKey(productId, storeId, startDate, endDate,
+                640, 480, ChartFormat.PNG)));
+        verify(priceHistoryRepository).findByProductIdAndStoreIdAndDateRange(productId, storeId,
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX));
+    }
+
+    @Test
+    void testGeneratePriceHistoryChart_RejectsOversizedChart() {
+        // GIVEN
+        LocalDate startDate = LocalDate.of(2025, 6, 1);
+        LocalDate endDate = LocalDate.of(2025, 6, 7);
+
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class, () -> priceService.generatePriceHistoryChart(
+                1L, 2L, startDate, endDate, ChartGenerator.MAX_SIZE + 1, 600, ChartFormat.PNG));
+        verify(priceHistoryRepository, never()).findByProductIdAndStoreIdAndDateRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void testGeneratePriceComparisonChart_SingleQueryForAllStores() throws Exception {
+        // GIVEN
+        Long productId = 1L;
+        LocalDate startDate = LocalDate.of(2025, 6, 1);
+        LocalDate endDate = LocalDate.of(2025, 6, 7);
+        List<Long> storeIds = List.of(2L, 3L, 2L);
+        List<PriceHistoryDTO> history = List.of(
+                new PriceHistoryDTO(1L, productId, 2L, 100, LocalDateTime.of(2025, 6, 1, 10, 0)),
+                new PriceHistoryDTO(2L, productId, 2L, 110, LocalDateTime.of(2025, 6, 2, 10, 0)),
+                new PriceHistoryDTO(3L, productId, 3L, 95, LocalDateTime.of(2025, 6, 1, 12, 0)));
+        Store store2 = new Store();
+        store2.setStoreId(2L);
+        store2.setStoreName("Store A");
+        Store store3 = new Store();
+        store3.setStoreId(3L);
+        store3.setStoreName("Store B");
+
+        when(priceHistoryRepository.findByProductIdAndStoreIdsAndDateRange(productId, List.of(2L, 3L),
+                startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)))
+                .thenReturn(history);
+        when(storeRepository.findAllById(List.of(2L, 3L))).thenReturn(List.of(store2, store3));
 
         // WHEN
-        byte[] result = priceService.exportPricesToJson();
+        byte[] chart = priceService.generatePriceComparisonChart(productId, storeIds, startDate, endDate,
+                640, 480, ChartFormat.PNG).get();
 
         // THEN
-        assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertTrue(chart.length > 0);
+        verify(priceHistoryRepository, never()).findByProductIdAndStoreIdAndDateRange(any(), any(), any(), any());
     }
 
     @Test
-    void testImportPricesFromJson() {
+    void testGeneratePriceComparisonChart_EmptyStores() {
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class, () -> priceService.generatePriceComparisonChart(
+                1L, List.of(), LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 7), 640, 480, ChartFormat.PNG));
+    }
+
+    @Test
+    void testExportPrices_Json() throws Exception {
+        // GIVEN
+        PriceDTO price = new PriceDTO(1L, 1L, 1L, 100, LocalDateTime.of(2025, 1, 1, 10, 0));
+        when(priceRepository.streamAllAsDto()).thenReturn(Stream.of(price));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        ExportResultDTO result = priceService.exportPrices(ExportFormat.JSON, outputStream);
+
+        // THEN
+        assertEquals("prices", result.getTableName());
+        assertEquals(ExportFormat.JSON, result.getFormat());
+        assertEquals(1L, result.getRowCount());
+        assertEquals(outputStream.size(), result.getBytesWritten());
+        String json = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.endsWith("}]"));
+        assertTrue(json.contains("\"recordedAt\":\"2025-01-01T10:00:00\""));
+        verify(priceRepository).streamAllAsDto();
+        verifyNoMoreInteractions(priceRepository);
+    }
+
+    @Test
+    void testExportPriceHistory_Arrow() throws Exception {
+        // GIVEN
+        PriceHistoryDTO first = new PriceHistoryDTO(1L, 1L, 1L, 100, LocalDateTime.of(2025, 1, 1, 10, 0));
+        PriceHistoryDTO second = new PriceHistoryDTO(2L, 1L, 1L, 110, LocalDateTime.of(2025, 1, 2, 10, 0));
+        when(priceHistoryRepository.streamAllAsDto()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        ExportResultDTO result = priceService.exportPriceHistory(ExportFormat.ARROW, outputStream);
+
+        // THEN
+        assertEquals("price_history", result.getTableName());
+        assertEquals(2L, result.getRowCount());
+        assertTrue(outputStream.size() > 0);
+        assertEquals(outputStream.size(), result.getBytesWritten());
+        verify(priceHistoryRepository).streamAllAsDto();
+        verifyNoMoreInteractions(priceHistoryRepository);
+    }
+
+    @Test
+    void testImportPricesFromJson() throws Exception {
         // GIVEN
         String jsonData = "[{\"priceId\":1,\"price\":100,\"productId\":1,\"storeId\":1}]";
         byte[] data = jsonData.getBytes();
@@ -242,11 +585,24 @@ class PriceServiceImplTest {
         when(priceRepository.saveAll(anyList())).thenReturn(List.of(new Price()));
 
         // WHEN
-        List<PriceDTO> result = priceService.importPricesFromJson(data);
+        ImportResultDTO result = priceService.importPricesFromJson(new ByteArrayInputStream(data));
 
         // THEN
-        assertEquals(1, result.size());
-        assertEquals(price.getPriceId(), result.get(0).getPriceId());
+        assertEquals(1, result.getTotalRecords());
+        assertEquals(1, result.getImportedRecords());
+        assertEquals(0, result.getFailedRecords());
         verify(priceRepository).saveAll(anyList());
     }
+
+    private static PriceHistoryBucket createBucket() {
+        PriceHistoryBucket bucket = mock(PriceHistoryBucket.class);
+        when(bucket.getBucketStart()).thenReturn(LocalDateTime.of(2025, 1, 1, 0, 0));
+        when(bucket.getMinPrice()).thenReturn(90);
+        when(bucket.getMaxPrice()).thenReturn(120);
+        when(bucket.getFirstPrice()).thenReturn(100);
+        when(bucket.getLastPrice()).thenReturn(110);
+        when(bucket.getAvgPrice()).thenReturn(105.0);
+        when(bucket.getCount()).thenReturn(31L);
+        return bucket;
+    }
 }
@@ -1,10 +1,13 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.ProductDTO;
 import com.example.entity.Category;
 import com.example.entity.Product;
 import com.example.mapper.ProductMapper;
 import com.example.repository.ProductRepository;
+import com.example.utils.ChunkedJsonImporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,15 +16,23 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +50,10 @@ class ProductServiceImplTest {
     @BeforeEach
     void setUp() {
         ObjectMapper objectMapper = new ObjectMapper();
-        productService = new ProductServiceImpl(productRepository, productMapper, objectMapper);
+        ChunkedJsonImporter chunkedJsonImporter = new ChunkedJsonImporter(objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100);
+        productService = new ProductServiceImpl(productRepository, productMapper, objectMapper,
+                chunkedJsonImporter);
     }
 
     @Test
@@ -136,21 +150,30 @@ class ProductServiceImplTest {
     }
 
     @Test
-    void testExportProductsToJson() {
+    void testExportProductsToJson() throws IOException {
         // GIVEN
-        Product product = new Product();
-        when(productRepository.findAllWithCategory()).thenReturn(List.of(product));
+        ProductDTO first = new ProductDTO(1L, "First", 1L, null, null);
+        ProductDTO second = new ProductDTO(2L, "Second", 1L, null, null);
+        when(productRepository.streamAllAsDto()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         // WHEN
-        byte[] result = productService.exportProductsToJson();
+        ExportResultDTO result = productService.exportProductsToJson(outputStream);
 
         // THEN
-        assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertEquals("products", result.getTableName());
+        assertEquals(2L, result.getRowCount());
+        assertEquals(outputStream.size(), result.getBytesWritten());
+        String json = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.contains("\"productName\":\"Second\""));
+        assertTrue(json.endsWith("}]"));
+        verify(productRepository).streamAllAsDto();
+        verifyNoMoreInteractions(productRepository);
     }
 
     @Test
-    void testImportProductsFromJson() {
+    void testImportProductsFromJson() throws IOException {
         // GIVEN
         String jsonData = "[{\"productId\":1,\"productName\":\"Test Product\",\"categoryId\":1}]";
         byte[] data = jsonData.getBytes();
@@ -165,11 +188,12 @@ class ProductServiceImplTest {
         when(productRepository.saveAll(anyList())).thenReturn(List.of(product));
 
         // WHEN
-        List<ProductDTO> result = productService.importProductsFromJson(data);
+        ImportResultDTO result = productService.importProductsFromJson(new ByteArrayInputStream(data));
 
         // THEN
-        assertEquals(1, result.size());
-        assertEquals(product.getProductId(), result.get(0).getProductId());
+        assertEquals(1, result.getTotalRecords());
+        assertEquals(1, result.getImportedRecords());
+        assertEquals(1, result.getChunks());
         verify(productRepository).saveAll(anyList());
     }
 }
@@ -1,9 +1,12 @@
 package com.example.service.impl;
 
+import com.example.dto.ExportResultDTO;
+import com.example.dto.ImportResultDTO;
 import com.example.dto.StoreDTO;
 import com.example.entity.Store;
 import com.example.mapper.StoreMapper;
 import com.example.repository.StoreRepository;
+import com.example.utils.ChunkedJsonImporter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,14 +15,23 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,7 +49,9 @@ class StoreServiceImplTest {
     @BeforeEach
     void setUp() {
         ObjectMapper objectMapper = new ObjectMapper();
-        storeService = new StoreServiceImpl(storeRepository, storeMapper, objectMapper);
+        ChunkedJsonImporter chunkedJsonImporter = new ChunkedJsonImporter(objectMapper,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 100);
+        storeService = new StoreServiceImpl(storeRepository, storeMapper, objectMapper, chunkedJsonImporter);
     }
 
     @Test
@@ -113,21 +127,29 @@ class StoreServiceImplTest {
     }
 
     @Test
-    void testExportStoresToJson() {
+    void testExportStoresToJson() throws IOException {
         // GIVEN
-        Store store = new Store();
-        when(storeRepository.findAll()).thenReturn(List.of(store));
+        StoreDTO store = new StoreDTO(1L, "Store", "Address", null, null);
+        when(storeRepository.streamAllAsDto()).thenReturn(Stream.of(store));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 
         // WHEN
-        byte[] result = storeService.exportStoresToJson();
+        ExportResultDTO result = storeService.exportStoresToJson(outputStream);
 
         // THEN
-        assertNotNull(result);
-        assertTrue(result.length > 0);
+        assertEquals("stores", result.getTableName());
+        assertEquals(1L, result.getRowCount());
+        assertEquals(outputStream.size(), result.getBytesWritten());
+        String json = outputStream.toString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{"));
+        assertTrue(json.contains("\"storeName\":\"Store\""));
+        assertTrue(json.endsWith("}]"));
+        verify(storeRepository).streamAllAsDto();
+        verifyNoMoreInteractions(storeRepository);
     }
 
     @Test
-    void testImportStoresFromJson() {
+    void testImportStoresFromJson() throws IOException {
         // GIVEN
         String jsonData = "[{\"storeId\":1,\"storeName\":\"Test Store\"}]";
         byte[] data = jsonData.getBytes();
@@ -139,11 +161,11 @@ class StoreServiceImplTest {
         when(storeRepository.saveAll(anyList())).thenReturn(List.of(new Store()));
 
         // WHEN
-        List<StoreDTO> result = storeService.importStoresFromJson(data);
+        ImportResultDTO result = storeService.importStoresFromJson(new ByteArrayInputStream(data));
 
         // THEN
-        assertEquals(1, result.size());
-        assertEquals(store.getStoreId(), result.get(0).getStoreId());
+        assertEquals(1, result.getTotalRecords());
+        assertEquals(1, result.getImportedRecords());
         verify(storeRepository).saveAll(anyList());
     }
 }
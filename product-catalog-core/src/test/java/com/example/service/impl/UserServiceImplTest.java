@@ -1,15 +1,21 @@
 package com.example.service.impl;
 
+import com.example.dto.TokenClaimsDTO;
 import com.example.entity.security.CustomUserDetails;
 import com.example.enums.UserRole;
+import com.example.exceptions.InvalidRequestParameterException;
+import com.example.exceptions.InvalidTokenException;
 import com.example.repository.security.UserRepository;
 import com.example.entity.security.User;
 import com.example.exceptions.UserNotFoundException;
+import com.example.utils.TokenVersionCache;
+import com.example.utils.VerifiedTokenCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -18,9 +24,14 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +42,12 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TokenVersionCache tokenVersionCache;
+
+    @Spy
+    private VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(new SimpleMeterRegistry(), 100);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -38,6 +55,8 @@ class UserServiceImplTest {
     void setUp() {
         ReflectionTestUtils.setField(userService, "SECRET_KEY",
                 "test-secret-key-ту-лонг-кей-");
+        ReflectionTestUtils.setField(userService, "stateless", true);
+        ReflectionTestUtils.setField(userService, "versionCheckEnabled", true);
         userService.init();
     }
 
@@ -133,6 +152,115 @@ class UserServiceImplTest {
         assertTrue(isValid);
     }
 
+    @Test
+    void testParseToken() {
+        // GIVEN
+        User mockUser = new User();
+        mockUser.setUserId(7L);
+        mockUser.setUsername("testUser");
+        mockUser.setPassword("password");
+        mockUser.setRole(UserRole.ROLE_ADMIN);
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+
+        String token = userService.generateToken(
+                new org.springframework.security.core.userdetails.User("testUser", "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // WHEN
+        TokenClaimsDTO claims = userService.parseToken(token);
+
+        // THEN
+        assertEquals("testUser", claims.getUsername());
+        assertEquals(7L, claims.getUserId());
+        assertEquals(List.of("ROLE_ADMIN"), claims.getRoles());
+        assertTrue(claims.getExpiresAt().isAfter(Instant.now()));
+        assertEquals(0, claims.getTokenVersion());
+    }
+
+    @Test
+    void testParseToken_InvalidSignature() {
+        // GIVEN
+        User mockUser = new User();
+        mockUser.setUserId(1L);
+        mockUser.setUsername("testUser");
+        mockUser.setPassword("password");
+        mockUser.setRole(UserRole.ROLE_USER);
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+
+        String token = userService.generateToken(
+                new org.springframework.security.core.userdetails.User("testUser", "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))));
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        // WHEN & THEN
+        assertThrows(InvalidTokenException.class, () -> userService.parseToken(tampered));
+        assertThrows(InvalidTokenException.class, () -> userService.parseToken("not-a-token"));
+    }
+
+    @Test
+    void testValidateToken_ClaimsOfAnotherUser() {
+        // GIVEN
+        TokenClaimsDTO claims = new TokenClaimsDTO("otherUser", 2L, List.of("ROLE_USER"),
+                Instant.now().plusSeconds(60), 0);
+        UserDetails userDetails =
+                new org.springframework.security.core.userdetails.User("testUser", "password",
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+
+        // WHEN & THEN
+        assertFalse(userService.validateToken(claims, userDetails));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testLoadUserFromToken_Stateless() {
+        // GIVEN
+        TokenClaimsDTO claims = new TokenClaimsDTO("testUser", 1L, List.of("ROLE_ADMIN"),
+                Instant.now().plusSeconds(60), 3);
+        when(tokenVersionCache.get(eq(1L), any())).thenReturn(3);
+
+        // WHEN
+        UserDetails result = userService.loadUserFromToken(claims);
+
+        // THEN
+        CustomUserDetails details = assertInstanceOf(CustomUserDetails.class, result);
+        assertEquals(1L, details.getUserId());
+        assertEquals("testUser", details.getUsername());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), List.copyOf(details.getAuthorities()));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testLoadUserFromToken_Revoked() {
+        // GIVEN
+        TokenClaimsDTO claims = new TokenClaimsDTO("testUser", 1L, List.of("ROLE_ADMIN"),
+                Instant.now().plusSeconds(60), 3);
+        when(tokenVersionCache.get(eq(1L), any())).thenReturn(4);
+
+        // WHEN & THEN
+        assertThrows(InvalidTokenException.class, () -> userService.loadUserFromToken(claims));
+    }
+
+    @Test
+    void testLoadUserFromToken_TokenWithoutVersion() {
+        // GIVEN
+        TokenClaimsDTO claims = new TokenClaimsDTO("testUser", 1L, List.of("ROLE_USER"),
+                Instant.now().plusSeconds(60), null);
+        User user = new User();
+        user.setUserId(1L);
+        user.setUsername("testUser");
+        user.setPassword("password");
+        user.setRole(UserRole.ROLE_USER);
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(user));
+
+        // WHEN
+        UserDetails result = userService.loadUserFromToken(claims);
+
+        // THEN
+        assertEquals("password", result.getPassword());
+        verifyNoInteractions(tokenVersionCache);
+    }
+
     @Test
     void testLoadUserByUsername_UserExists() {
         // GIVEN
@@ -162,6 +290,23 @@ class UserServiceImplTest {
         assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername(username));
     }
 
+    @Test
+    void testUpdatePassword_KeepsTokensValid() {
+        // GIVEN
+        UserDetails userDetails = new CustomUserDetails(1L, "testUser", "$2a$04$old",
+                Collections.singleton(new SimpleGrantedAuthority("ROLE_USER")));
+
+        // WHEN
+        UserDetails result = userService.updatePassword(userDetails, "{bcrypt}$2a$10$new");
+
+        // THEN
+        assertEquals("{bcrypt}$2a$10$new", result.getPassword());
+        assertEquals(1L, assertInstanceOf(CustomUserDetails.class, result).getUserId());
+        verify(userRepository).updatePassword("testUser", "{bcrypt}$2a$10$new");
+        verify(userRepository, never()).incrementTokenVersion(any());
+        verifyNoInteractions(tokenVersionCache);
+    }
+
     @Test
     void testUserExists_True() {
         // GIVEN
@@ -214,7 +359,7 @@ class UserServiceImplTest {
         user.setPassword("password");
 
         // WHEN & THEN
-        assertThrows(IllegalArgumentException.class, () -> userService.addUser(user));
+        assertThrows(InvalidRequestParameterException.class, () -> userService.addUser(user));
     }
 
     @Test
@@ -225,7 +370,7 @@ class UserServiceImplTest {
         user.setPassword("123");
 
         // WHEN & THEN
-        assertThrows(IllegalArgumentException.class, () -> userService.addUser(user));
+        assertThrows(InvalidRequestParameterException.class, () -> userService.addUser(user));
     }
 
     @Test
@@ -249,7 +394,7 @@ class UserServiceImplTest {
         );
         SecurityContextHolder.getContext().setAuthentication(auth);
 
-        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+        when(userRepository.getReferenceById(1L)).thenReturn(mockUser);
 
         // WHEN
         User result = userService.getCurrentUser();
@@ -257,6 +402,28 @@ class UserServiceImplTest {
         // THEN
         assertNotNull(result);
         assertEquals("testUser", result.getUsername());
+        verify(userRepository, never()).findByUsername(any());
+    }
+
+    @Test
+    void testGetCurrentUser_PrincipalWithoutUserId() {
+        // GIVEN
+        User mockUser = new User();
+        mockUser.setUsername("testUser");
+
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User("testUser", "password",
+                Collections.singleton(new SimpleGrantedAuthority("ROLE_USER")));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        when(userRepository.findByUsername("testUser")).thenReturn(Optional.of(mockUser));
+
+        // WHEN
+        User result = userService.getCurrentUser();
+
+        // THEN
+        assertEquals("testUser", result.getUsername());
+        verify(userRepository, never()).getReferenceById(any());
     }
 
     @Test
@@ -328,13 +495,62 @@ class UserServiceImplTest {
         User user = new User();
         user.setUserId(1L);
         user.setUsername("updatedUser");
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+
+        // WHEN
+        userService.updateUser(user);
+
+        // THEN
+        verify(userRepository).save(user);
+        verify(userRepository, never()).incrementTokenVersion(any());
+    }
+
+    @Test
+    void testUpdateUser_RoleChangedRevokesTokens() {
+        // GIVEN
+        User existingUser = new User();
+        existingUser.setUserId(1L);
+        existingUser.setPassword("password");
+        existingUser.setRole(UserRole.ROLE_ADMIN);
+        User user = new User();
+        user.setUserId(1L);
+        user.setPassword("password");
+        user.setRole(UserRole.ROLE_USER);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
 
         // WHEN
         userService.updateUser(user);
 
         // THEN
         verify(userRepository).save(user);
+        verify(userRepository).incrementTokenVersion(1L);
+        verify(tokenVersionCache).evict(1L);
+    }
+
+    @Test
+    void testUpdateUser_EvictsTokenVersionAfterCommit() {
+        // GIVEN
+        User existingUser = new User();
+        existingUser.setUserId(1L);
+        existingUser.setPassword("password");
+        existingUser.setRole(UserRole.ROLE_ADMIN);
+        User user = new User();
+        user.setUserId(1L);
+        user.setPassword("password");
+        user.setRole(UserRole.ROLE_USER);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // WHEN
+            userService.updateUser(user);
+
+            // THEN
+            verify(tokenVersionCache, never()).evict(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(tokenVersionCache).evict(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -342,7 +558,7 @@ class UserServiceImplTest {
         // GIVEN
         User user = new User();
         user.setUserId(999L);
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
         // WHEN & THEN
         assertThrows(UserNotFoundException.class, () -> userService.updateUser(user));
@@ -0,0 +1,101 @@
+package com.example.utils;
+
+import com.example.dto.PriceDTO;
+import com.example.dto.PriceHistoryDTO;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrowExportWriterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void testWritePrices_ColumnsReadBack() throws Exception {
+        // GIVEN
+        PriceDTO price = new PriceDTO(7L, 3L, 2L, 150, START.plusNanos(123_000));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        long count = ArrowExportWriter.writePrices(Stream.of(price), outputStream);
+
+        // THEN
+        assertEquals(1, count);
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(
+                     new ByteArrayInputStream(outputStream.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertTrue(reader.loadNextBatch());
+            assertEquals(1, root.getRowCount());
+            assertEquals(7L, ((BigIntVector) root.getVector("priceId")).get(0));
+            assertEquals(3L, ((BigIntVector) root.getVector("productId")).get(0));
+            assertEquals(2L, ((BigIntVector) root.getVector("storeId")).get(0));
+            assertEquals(150, ((IntVector) root.getVector("price")).get(0));
+            assertEquals(START.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + 123,
+                    ((TimeStampMicroVector) root.getVector("recordedAt")).get(0));
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+
+    @Test
+    void testWritePriceHistory_SplitsIntoBatches() throws Exception {
+        // GIVEN
+        int rows = ArrowExportWriter.BATCH_SIZE * 2 + 10;
+        Stream<PriceHistoryDTO> history = LongStream.range(0, rows)
+                .mapToObj(i -> new PriceHistoryDTO(i, 1L, 1L, (int) (i % 100), START.plusMinutes(i)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        long count = ArrowExportWriter.writePriceHistory(history, outputStream);
+
+        // THEN
+        assertEquals(rows, count);
+        int batches = 0;
+        long readRows = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(
+                     new ByteArrayInputStream(outputStream.toByteArray()), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                batches++;
+                readRows += root.getRowCount();
+            }
+        }
+        assertEquals(3, batches);
+        assertEquals(rows, readRows);
+    }
+
+    @Test
+    void testWritePrices_EmptyStreamWritesSchemaOnly() throws Exception {
+        // GIVEN
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        // WHEN
+        long count = ArrowExportWriter.writePrices(Stream.empty(), outputStream);
+
+        // THEN
+        assertEquals(0, count);
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(
+                     new ByteArrayInputStream(outputStream.toByteArray()), allocator)) {
+            assertEquals(5, reader.getVectorSchemaRoot().getSchema().getFields().size());
+            assertFalse(reader.loadNextBatch());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.utils;
+
+import com.example.enums.ChartFormat;
+import com.example.event.PriceHistoryAppendedEvent;
+import com.example.utils.ChartCache.ChartKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ChartCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate END = LocalDate.of(2025, 1, 31);
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedWhenOverBudget() {
+        // GIVEN
+        ChartCache cache = new ChartCache(250);
+        ChartKey first = new ChartKey(1L, 1L, START, END, 800, 600, ChartFormat.PNG);
+        ChartKey second = new ChartKey(2L, 1L, START, END, 800, 600, ChartFormat.PNG);
+        ChartKey third = new ChartKey(3L, 1L, START, END, 800, 600, ChartFormat.PNG);
+
+        // WHEN
+        cache.put(first, new byte[100], cache.version(first.productId(), first.storeId()));
+        cache.put(second, new byte[100], cache.version(second.productId(), second.storeId()));
+        cache.get(first);
+        cache.put(third, new byte[100], cache.version(third.productId(), third.storeId()));
+
+        // THEN
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+    }
+
+    @Test
+    void testOnPriceHistoryAppended_InvalidatesOnlyAffectedPair() {
+        // GIVEN
+        ChartCache cache = new ChartCache(1024);
+        ChartKey affected = new ChartKey(1L, 2L, START, END, 800, 600, ChartFormat.PNG);
+        ChartKey other = new ChartKey(1L, 3L, START, END, 800, 600, ChartFormat.PNG);
+        cache.put(affected, new byte[10], cache.version(affected.productId(), affected.storeId()));
+        cache.put(other, new byte[10], cache.version(other.productId(), other.storeId()));
+
+        // WHEN
+        cache.onPriceHistoryAppended(new PriceHistoryAppendedEvent(1L, 2L));
+
+        // THEN
+        assertNull(cache.get(affected));
+        assertNotNull(cache.get(other));
+    }
+
+    @Test
+    void testPut_SkipsChartRenderedBeforeInvalidation() {
+        // GIVEN
+        ChartCache cache = new ChartCache(1024);
+        ChartKey key = new ChartKey(1L, 2L, START, END, 800, 600, ChartFormat.PNG);
+        long versionBeforeRead = cache.version(1L, 2L);
+
+        // WHEN
+        cache.onPriceHistoryAppended(new PriceHistoryAppendedEvent(1L, 2L));
+        cache.put(key, new byte[10], versionBeforeRead);
+
+        // THEN
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    void testPut_InvalidationOfOtherPairDoesNotBlockCaching() {
+        // GIVEN
+        ChartCache cache = new ChartCache(1024);
+        ChartKey key = new ChartKey(1L, 2L, START, END, 800, 600, ChartFormat.PNG);
+        long versionBeforeRead = cache.version(1L, 2L);
+
+        // WHEN
+        cache.onPriceHistoryAppended(new PriceHistoryAppendedEvent(1L, 3L));
+        cache.onPriceHistoryAppended(new PriceHistoryAppendedEvent(5L, 2L));
+        cache.put(key, new byte[10], versionBeforeRead);
+
+        // THEN
+        assertNotNull(cache.get(key));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.utils;
+
+import com.example.dto.PriceHistoryDTO;
+import com.example.enums.ChartFormat;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartGeneratorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private final ChartGenerator chartGenerator = new ChartGenerator();
+
+    @Test
+    void testDecimate_KeepsEndpointsAndPeaks() {
+        // GIVEN
+        List<PriceHistoryDTO> history = createHistory(10_000);
+        history.get(5_000).setPrice(1_000_000);
+        history.get(7_500).setPrice(-1_000_000);
+
+        // WHEN
+        List<PriceHistoryDTO> result = ChartGenerator.decimate(history, 200);
+
+        // THEN
+        assertEquals(200, result.size());
+        assertSame(history.get(0), result.get(0));
+        assertSame(history.get(9_999), result.get(199));
+        assertTrue(result.contains(history.get(5_000)));
+        assertTrue(result.contains(history.get(7_500)));
+    }
+
+    @Test
+    void testDecimate_ShortSeriesUnchanged() {
+        // GIVEN
+        List<PriceHistoryDTO> history = createHistory(50);
+
+        // WHEN
+        List<PriceHistoryDTO> result = ChartGenerator.decimate(history, 200);
+
+        // THEN
+        assertSame(history, result);
+    }
+
+    @Test
+    void testGeneratePriceHistoryChart_PngWithRequestedSize() throws Exception {
+        // GIVEN
+        List<PriceHistoryDTO> history = createHistory(100_000);
+
+        // WHEN
+        byte[] chart = chartGenerator.generatePriceHistoryChart(history, 640, 320, ChartFormat.PNG);
+
+        // THEN
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(chart));
+        assertEquals(640, image.getWidth());
+        assertEquals(320, image.getHeight());
+    }
+
+    @Test
+    void testGeneratePriceHistoryChart_Svg() throws Exception {
+        // GIVEN
+        List<PriceHistoryDTO> history = createHistory(1_000);
+
+        // WHEN
+        byte[] chart = chartGenerator.generatePriceHistoryChart(history, 640, 320, ChartFormat.SVG);
+
+        // THEN
+        String document = new String(chart, StandardCharsets.UTF_8);
+        assertTrue(document.contains("<svg"));
+        assertTrue(document.trim().endsWith("</svg>"));
+    }
+
+    @Test
+    void testGenerateComparisonChart_SeriesPerStore() throws Exception {
+        // GIVEN
+        Map<String, List<PriceHistoryDTO>> historyByStore = new LinkedHashMap<>();
+        historyByStore.put("Store A (ID=1)", createHistory(5_000));
+        historyByStore.put("Store B (ID=2)", createHistory(5_000));
+
+        // WHEN
+        byte[] chart = chartGenerator.generateComparisonChart(historyByStore, 640, 320, ChartFormat.PNG);
+
+        // THEN
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(chart));
+        assertEquals(640, image.getWidth());
+        assertEquals(320, image.getHeight());
+    }
+
+    private static List<PriceHistoryDTO> createHistory(int size) {
+        List<PriceHistoryDTO> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            history.add(new PriceHistoryDTO((long) i, 1L, 1L, 100 + (i % 17), START.plusSeconds(i * 30L)));
+        }
+        return history;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.utils;
+
+import com.example.dto.ImportChunkErrorDTO;
+import com.example.dto.ImportResultDTO;
+import com.example.dto.StoreDTO;
+import com.example.exceptions.DataImportException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ChunkedJsonImporterTest {
+
+    private final ChunkedJsonImporter importer = new ChunkedJsonImporter(new ObjectMapper(),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 2);
+
+    @Test
+    void testImportArray_WritesInChunks() throws Exception {
+        // GIVEN
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        // WHEN
+        ImportResultDTO result = importer.importArray(stores(5), StoreDTO.class, "stores",
+                chunk -> chunkSizes.add(chunk.size()));
+
+        // THEN
+        assertEquals(List.of(2, 2, 1), chunkSizes);
+        assertEquals(5, result.getTotalRecords());
+        assertEquals(5, result.getImportedRecords());
+        assertEquals(0, result.getFailedRecords());
+        assertEquals(3, result.getChunks());
+        assertTrue(result.getErrors().isEmpty());
+    }
+
+    @Test
+    void testImportArray_FailedChunkDoesNotStopImport() throws Exception {
+        // GIVEN
+        List<String> saved = new ArrayList<>();
+
+        // WHEN
+        ImportResultDTO result = importer.importArray(stores(5), StoreDTO.class, "stores", chunk -> {
+            if (chunk.get(0).getStoreName().equals("Store 3")) {
+                throw new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("duplicate key value violates unique constraint \"stores_store_name_key\""));
+            }
+            chunk.forEach(store -> saved.add(store.getStoreName()));
+        });
+
+        // THEN
+        assertEquals(List.of("Store 1", "Store 2", "Store 5"), saved);
+        assertEquals(5, result.getTotalRecords());
+        assertEquals(3, result.getImportedRecords());
+        assertEquals(2, result.getFailedRecords());
+        assertEquals(1, result.getErrors().size());
+        ImportChunkErrorDTO error = result.getErrors().get(0);
+        assertEquals(2, error.getChunk());
+        assertEquals(3, error.getFirstRecord());
+        assertEquals(4, error.getLastRecord());
+        assertEquals("Нарушение ограничения целостности в записях 3-4", error.getMessage());
+    }
+
+    @Test
+    void testImportArray_UnexpectedErrorIsNotExposed() throws Exception {
+        // WHEN
+        ImportResultDTO result = importer.importArray(stores(1), StoreDTO.class, "stores", chunk -> {
+            throw new IllegalStateException("internal state of Store 1");
+        });
+
+        // THEN
+        assertEquals(1, result.getFailedRecords());
+        assertEquals("Ошибка сохранения в записях 1-1", result.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void testImportArray_ParseErrorKeepsSavedChunks() throws Exception {
+        // GIVEN
+        String json = "[{\"storeName\":\"Store 1\"},{\"storeName\":\"Store 2\"},"
+                + "{\"storeName\":\"Store 3\"},{\"storeName\":";
+        List<Integer> chunkSizes = new ArrayList<>();
+
+        // WHEN
+        ImportResultDTO result = importer.importArray(toStream(json), StoreDTO.class, "stores",
+                chunk -> chunkSizes.add(chunk.size()));
+
+        // THEN
+        assertEquals(List.of(2, 1), chunkSizes);
+        assertEquals(3, result.getImportedRecords());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(4, result.getErrors().get(0).getFirstRecord());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Ошибка разбора JSON в записи 4"));
+    }
+
+    @Test
+    void testImportArray_ReadFailurePropagates() {
+        // GIVEN
+        byte[] json = "[{\"storeName\":\"Store 1\"},{\"storeName\":".getBytes(StandardCharsets.UTF_8);
+        InputStream inputStream = new SequenceInputStream(new ByteArrayInputStream(json), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        // WHEN & THEN
+        assertThrows(IOException.class,
+                () -> importer.importArray(inputStream, StoreDTO.class, "stores", chunk -> { }));
+    }
+
+    @Test
+    void testImportArray_RejectsNonArray() {
+        // GIVEN
+        InputStream inputStream = toStream("{\"storeName\":\"Store 1\"}");
+
+        // WHEN & THEN
+        assertThrows(DataImportException.class,
+                () -> importer.importArray(inputStream, StoreDTO.class, "stores", chunk -> { }));
+    }
+
+    private static InputStream stores(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"storeName\":\"Store ").append(i).append("\"}");
+        }
+        return toStream(json.append(']').toString());
+    }
+
+    private static InputStream toStream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
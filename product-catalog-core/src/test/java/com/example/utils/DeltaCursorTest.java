@@ -0,0 +1,39 @@
+package com.example.utils;
+
+import com.example.exceptions.InvalidRequestParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DeltaCursorTest {
+
+    @Test
+    void testRoundTrip() {
+        // GIVEN
+        LocalDateTime watermark = LocalDateTime.of(2025, 6, 1, 10, 15, 30, 123_456_000);
+
+        // WHEN
+        String cursor = DeltaCursor.encode(watermark);
+
+        // THEN
+        assertEquals(watermark, DeltaCursor.decode(cursor));
+    }
+
+    @Test
+    void testDecode_InvalidCursor() {
+        String unknownVersion = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v0:2025-06-01T10:15:30".getBytes(StandardCharsets.UTF_8));
+        String brokenTimestamp = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("v1:yesterday".getBytes(StandardCharsets.UTF_8));
+
+        // WHEN & THEN
+        assertThrows(InvalidRequestParameterException.class, () -> DeltaCursor.decode("not base64!"));
+        assertThrows(InvalidRequestParameterException.class, () -> DeltaCursor.decode(unknownVersion));
+        assertThrows(InvalidRequestParameterException.class, () -> DeltaCursor.decode(brokenTimestamp));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.utils;
+
+import com.example.utils.PriceHistoryPartitionManager.RetentionAction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryPartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testMaintainPartitions_CreatesFuturePartitions() {
+        // GIVEN
+        PriceHistoryPartitionManager manager = createManager(2, 0, RetentionAction.DETACH);
+
+        // WHEN
+        manager.maintainPartitions(LocalDate.of(2024, 12, 15));
+
+        // THEN
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS price_history_2024_12 PARTITION OF price_history "
+                + "FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS price_history_2025_01 PARTITION OF price_history "
+                + "FOR VALUES FROM ('2025-01-01') TO ('2025-02-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS price_history_2025_02 PARTITION OF price_history "
+                + "FOR VALUES FROM ('2025-02-01') TO ('2025-03-01')");
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), eq("price_history"));
+    }
+
+    @Test
+    void testMaintainPartitions_DetachesExpiredPartitions() {
+        // GIVEN
+        PriceHistoryPartitionManager manager = createManager(0, 12, RetentionAction.DETACH);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("price_history")))
+                .thenReturn(List.of("price_history_2023_05", "price_history_2023_06", "price_history_default"));
+
+        // WHEN
+        manager.maintainPartitions(LocalDate.of(2024, 6, 10));
+
+        // THEN
+        verify(jdbcTemplate).execute("ALTER TABLE price_history DETACH PARTITION price_history_2023_05");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE price_history DETACH PARTITION price_history_2023_06");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE price_history DETACH PARTITION price_history_default");
+    }
+
+    @Test
+    void testMaintainPartitions_DropsExpiredPartitions() {
+        // GIVEN
+        PriceHistoryPartitionManager manager = createManager(0, 1, RetentionAction.DROP);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("price_history")))
+                .thenReturn(List.of("price_history_2024_04", "price_history_2024_05"));
+
+        // WHEN
+        manager.maintainPartitions(LocalDate.of(2024, 6, 10));
+
+        // THEN
+        verify(jdbcTemplate).execute("DROP TABLE price_history_2024_04");
+        verify(jdbcTemplate, never()).execute("DROP TABLE price_history_2024_05");
+    }
+
+    @Test
+    void testMaintainPartitions_MovesDefaultRowsIntoNewPartition() {
+        // GIVEN
+        PriceHistoryPartitionManager manager = createManager(0, 0, RetentionAction.DETACH);
+        lenient().when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any()))
+                .thenReturn(true);
+
+        // WHEN
+        manager.maintainPartitions(LocalDate.of(2024, 12, 15));
+
+        // THEN
+        LocalDateTime from = LocalDateTime.of(2024, 12, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 1, 1, 0, 0);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE price_history DETACH PARTITION price_history_default");
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS price_history_2024_12 PARTITION OF "
+                + "price_history FOR VALUES FROM ('2024-12-01') TO ('2025-01-01')");
+        inOrder.verify(jdbcTemplate).update(startsWith("INSERT INTO price_history_2024_12 "), eq(from), eq(to));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM price_history_default "), eq(from), eq(to));
+        inOrder.verify(jdbcTemplate)
+                .execute("ALTER TABLE price_history ATTACH PARTITION price_history_default DEFAULT");
+        assertEquals(0, meterRegistry.get("price.history.partitions.missing").gauge().value());
+    }
+
+    @Test
+    void testMaintainPartitions_ReportsFailedPartitions() {
+        // GIVEN
+        PriceHistoryPartitionManager manager = createManager(1, 0, RetentionAction.DETACH);
+        lenient().doThrow(new DataIntegrityViolationException("default partition constraint"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS price_history_2025_01 "));
+
+        // WHEN
+        manager.maintainPartitions(LocalDate.of(2024, 12, 15));
+
+        // THEN
+        verify(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS price_history_2024_12 "));
+        assertEquals(1, meterRegistry.get("price.history.partitions.failures").tag("operation", "create")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("price.history.partitions.missing").gauge().value());
+    }
+
+    private PriceHistoryPartitionManager createManager(int monthsAhead, int retentionMonths,
+                                                       RetentionAction retentionAction) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new PriceHistoryPartitionManager(jdbcTemplate, transactionTemplate, meterRegistry, monthsAhead,
+                retentionMonths, retentionAction);
+    }
+}
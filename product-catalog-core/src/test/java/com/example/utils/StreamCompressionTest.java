@@ -0,0 +1,95 @@
+package com.example.utils;
+
+import com.example.enums.CompressionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamCompressionTest {
+
+    private static final byte[] DATA = "[{\"storeName\":\"Store\"}]".repeat(1_000).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testNegotiate() {
+        assertEquals(CompressionType.NONE, StreamCompression.negotiate(null));
+        assertEquals(CompressionType.NONE, StreamCompression.negotiate("identity"));
+        assertEquals(CompressionType.GZIP, StreamCompression.negotiate("gzip, deflate, br"));
+        assertEquals(CompressionType.ZSTD, StreamCompression.negotiate("gzip, deflate, br, zstd"));
+        assertEquals(CompressionType.GZIP, StreamCompression.negotiate("zstd;q=0, gzip;q=0.8"));
+        assertEquals(CompressionType.NONE, StreamCompression.negotiate("gzip;q=0"));
+        assertEquals(CompressionType.GZIP, StreamCompression.negotiate("*"));
+        assertEquals(CompressionType.NONE, StreamCompression.negotiate("gzip;q=0.5, identity"));
+    }
+
+    @Test
+    void testNegotiate_PrefersHigherWeight() {
+        assertEquals(CompressionType.GZIP, StreamCompression.negotiate("gzip;q=1, zstd;q=0.1"));
+        assertEquals(CompressionType.ZSTD, StreamCompression.negotiate("gzip;q=0.5, zstd;q=0.9"));
+    }
+
+    @Test
+    void testNegotiate_ZeroWeightIsNotAcceptable() {
+        assertEquals(CompressionType.NONE, StreamCompression.negotiate("zstd;q=0"));
+        assertEquals(CompressionType.GZIP, StreamCompression.negotiate("zstd;q=0, *;q=0.5"));
+    }
+
+    @Test
+    void testGzipRoundTrip() throws Exception {
+        // GIVEN
+        byte[] compressed = compress(CompressionType.GZIP);
+
+        // WHEN
+        byte[] result;
+        try (InputStream inputStream = StreamCompression.decompress(new ByteArrayInputStream(compressed))) {
+            result = inputStream.readAllBytes();
+        }
+
+        // THEN
+        assertTrue(compressed.length < DATA.length / 10);
+        assertArrayEquals(DATA, result);
+    }
+
+    @Test
+    void testZstdRoundTrip() throws Exception {
+        // GIVEN
+        byte[] compressed = compress(CompressionType.ZSTD);
+
+        // WHEN
+        byte[] result;
+        try (InputStream inputStream = StreamCompression.decompress(new ByteArrayInputStream(compressed))) {
+            result = inputStream.readAllBytes();
+        }
+
+        // THEN
+        assertTrue(compressed.length < DATA.length / 10);
+        assertArrayEquals(DATA, result);
+    }
+
+    @Test
+    void testDecompress_PlainDataUnchanged() throws Exception {
+        // WHEN
+        byte[] result;
+        try (InputStream inputStream = StreamCompression.decompress(new ByteArrayInputStream(DATA))) {
+            result = inputStream.readAllBytes();
+        }
+
+        // THEN
+        assertArrayEquals(DATA, result);
+    }
+
+    private static byte[] compress(CompressionType type) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream compressed = StreamCompression.compress(outputStream, type)) {
+            compressed.write(DATA);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TokenVersionCacheTest {
+
+    @Test
+    void testGet_LoadsOncePerTtl() {
+        // GIVEN
+        TokenVersionCache cache = new TokenVersionCache(60, 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        // WHEN
+        cache.get(1L, userId -> loads.incrementAndGet());
+        Integer version = cache.get(1L, userId -> loads.incrementAndGet());
+
+        // THEN
+        assertEquals(1, version);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testEvict_ReloadsVersion() {
+        // GIVEN
+        TokenVersionCache cache = new TokenVersionCache(60, 100);
+        cache.get(1L, userId -> 0);
+
+        // WHEN
+        cache.evict(1L);
+        Integer version = cache.get(1L, userId -> 1);
+
+        // THEN
+        assertEquals(1, version);
+    }
+
+    @Test
+    void testGet_ReloadsExpiredEntry() {
+        // GIVEN
+        TokenVersionCache cache = new TokenVersionCache(0, 100);
+        cache.get(1L, userId -> 0);
+
+        // WHEN
+        Integer version = cache.get(1L, userId -> null);
+
+        // THEN
+        assertNull(version);
+    }
+
+    @Test
+    void testGet_DoesNotCacheWhenFull() {
+        // GIVEN
+        TokenVersionCache cache = new TokenVersionCache(60, 1);
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(1L, userId -> 0);
+
+        // WHEN
+        cache.get(2L, userId -> loads.incrementAndGet());
+        cache.get(2L, userId -> loads.incrementAndGet());
+
+        // THEN
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testDeleteExpired_RemovesStaleEntries() {
+        // GIVEN
+        TokenVersionCache cache = new TokenVersionCache(0, 100);
+        cache.get(1L, userId -> 0);
+
+        // WHEN
+        cache.deleteExpired();
+
+        // THEN
+        assertEquals(0, cache.size());
+    }
+}
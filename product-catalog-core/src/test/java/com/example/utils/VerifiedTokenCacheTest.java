@@ -0,0 +1,95 @@
+package com.example.utils;
+
+import com.example.dto.TokenClaimsDTO;
+import com.example.exceptions.InvalidTokenException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VerifiedTokenCacheTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testGet_VerifiesTokenOnce() {
+        // GIVEN
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 10);
+        TokenClaimsDTO claims = createClaims(Instant.now().plusSeconds(60));
+        AtomicInteger verifications = new AtomicInteger();
+
+        // WHEN
+        cache.get("token", token -> {
+            verifications.incrementAndGet();
+            return claims;
+        });
+        TokenClaimsDTO result = cache.get("token", token -> {
+            verifications.incrementAndGet();
+            return claims;
+        });
+
+        // THEN
+        assertSame(claims, result);
+        assertEquals(1, verifications.get());
+        assertEquals(1.0, meterRegistry.counter("jwt.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("jwt.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testGet_ExpiredEntryVerifiedAgain() {
+        // GIVEN
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 10);
+        cache.get("token", token -> createClaims(Instant.now().minusSeconds(1)));
+
+        // WHEN & THEN
+        assertThrows(InvalidTokenException.class, () -> cache.get("token", token -> {
+            throw new InvalidTokenException("Невалидный токен", null);
+        }));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_DoesNotGrowBeyondMaxSize() {
+        // GIVEN
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 1);
+        TokenClaimsDTO claims = createClaims(Instant.now().plusSeconds(60));
+
+        // WHEN
+        cache.get("first", token -> claims);
+        cache.get("second", token -> claims);
+
+        // THEN
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testDeleteExpired() {
+        // GIVEN
+        VerifiedTokenCache cache = new VerifiedTokenCache(meterRegistry, 10);
+        cache.get("expired", token -> createClaims(Instant.now().minusSeconds(1)));
+        cache.get("valid", token -> createClaims(Instant.now().plusSeconds(60)));
+
+        // WHEN
+        cache.deleteExpired();
+
+        // THEN
+        assertEquals(1, cache.size());
+    }
+
+    private static TokenClaimsDTO createClaims(Instant expiresAt) {
+        return new TokenClaimsDTO("testUser", 1L, List.of("ROLE_USER"), expiresAt, 0);
+    }
+}